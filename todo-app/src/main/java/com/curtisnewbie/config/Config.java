@@ -72,6 +72,12 @@ public class Config implements Serializable {
     @JsonProperty(required = false, defaultValue = "true")
     private boolean specialTagEnabled;
 
+    /**
+     * Load the to-dos continuously while scrolling, instead of page by page
+     */
+    @JsonProperty(required = false, defaultValue = "false")
+    private boolean infiniteScrollEnabled;
+
     public Config() {
 
     }
@@ -86,6 +92,7 @@ public class Config implements Serializable {
         this.copyNameOnly = environment.isCopyNameOnly();
         this.specialTagHidden = environment.isSpecialTagHidden();
         this.specialTagEnabled = environment.isSpecialTagEnabled();
+        this.infiniteScrollEnabled = environment.isInfiniteScrollEnabled();
     }
 
     public static Config getDefaultConfig() {
@@ -97,6 +104,7 @@ public class Config implements Serializable {
         c.setCopyNameOnly(true);
         c.setSpecialTagHidden(true);
         c.setSpecialTagEnabled(true);
+        c.setInfiniteScrollEnabled(false);
         return c;
     }
 }
@@ -68,6 +68,12 @@ public class Environment {
     @Getter
     private final boolean specialTagEnabled;
 
+    /**
+     * Load the to-dos continuously while scrolling, instead of page by page
+     */
+    @Getter
+    private final boolean infiniteScrollEnabled;
+
     public Environment(Config config) {
         this(Language.parseLang(config.getLanguage()),
                 config.isStrikethroughEffectEnabled(),
@@ -77,55 +83,61 @@ public class Environment {
                 config.getSuggestionsToggle(),
                 config.isCopyNameOnly(),
                 config.isSpecialTagHidden(),
-                config.isSpecialTagEnabled()
+                config.isSpecialTagEnabled(),
+                config.isInfiniteScrollEnabled()
         );
     }
 
     public Environment setLanguage(Language language) {
         return new Environment(language, strikethroughEffectEnabled, searchOnTypingEnabled, quickTodoBarDisplayed, pattern,
-                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled);
+                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled, infiniteScrollEnabled);
     }
 
     public Environment setStrikethroughEffectEnabled(boolean strikethroughEffectEnabled) {
         return new Environment(language, strikethroughEffectEnabled, searchOnTypingEnabled, quickTodoBarDisplayed, pattern,
-                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled);
+                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled, infiniteScrollEnabled);
     }
 
     public Environment setSearchOnTypingEnabled(boolean searchOnTypingEnabled) {
         return new Environment(language, strikethroughEffectEnabled, searchOnTypingEnabled, quickTodoBarDisplayed, pattern,
-                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled);
+                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled, infiniteScrollEnabled);
     }
 
     public Environment setPattern(String pattern) {
         return new Environment(language, strikethroughEffectEnabled, searchOnTypingEnabled, quickTodoBarDisplayed, pattern,
-                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled);
+                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled, infiniteScrollEnabled);
     }
 
     public Environment setQuickTodoBarDisplayed(boolean quickTodoBarDisplayed) {
         return new Environment(language, strikethroughEffectEnabled, searchOnTypingEnabled, quickTodoBarDisplayed, pattern,
-                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled);
+                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled, infiniteScrollEnabled);
     }
 
     public Environment setCopyNameOnly(boolean copyNameOnly) {
         return new Environment(language, strikethroughEffectEnabled, searchOnTypingEnabled, quickTodoBarDisplayed, pattern,
-                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled);
+                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled, infiniteScrollEnabled);
     }
 
     public Environment setSpecialTagHidden(boolean specialTagHidden) {
         return new Environment(language, strikethroughEffectEnabled, searchOnTypingEnabled, quickTodoBarDisplayed, pattern,
-                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled);
+                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled, infiniteScrollEnabled);
     }
 
     public Environment setSpecialTagEnabled(boolean specialTagEnabled) {
         return new Environment(language, strikethroughEffectEnabled, searchOnTypingEnabled, quickTodoBarDisplayed, pattern,
-                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled);
+                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled, infiniteScrollEnabled);
+    }
+
+    public Environment setInfiniteScrollEnabled(boolean infiniteScrollEnabled) {
+        return new Environment(language, strikethroughEffectEnabled, searchOnTypingEnabled, quickTodoBarDisplayed, pattern,
+                _suggestionsToggle, copyNameOnly, specialTagHidden, specialTagEnabled, infiniteScrollEnabled);
     }
 
     public Environment toggleSuggestionOff(SuggestionType key) {
         final Map<SuggestionType, Boolean> nst = new HashMap<>(_suggestionsToggle);
         nst.put(key, false);
         return new Environment(language, strikethroughEffectEnabled, searchOnTypingEnabled, quickTodoBarDisplayed, pattern,
-                nst, copyNameOnly, specialTagHidden, specialTagEnabled);
+                nst, copyNameOnly, specialTagHidden, specialTagEnabled, infiniteScrollEnabled);
     }
 
     public boolean isSuggestionToggleOn(SuggestionType key) {
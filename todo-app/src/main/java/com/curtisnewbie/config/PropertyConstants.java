@@ -14,6 +14,9 @@ public final class PropertyConstants {
 
     public static final String APP_GITHUB = "app.github";
     public static final String APP_AUTHOR = "app.author";
+    public static final String DB_WRITE_BATCH_MAX_SIZE = "db.write.batch.max-size";
+    public static final String DB_WRITE_BATCH_WINDOW_MS = "db.write.batch.window-ms";
+    public static final String DB_PAGE_CACHE_CAPACITY = "db.page-cache.capacity";
     // ------------------ localised config -----------
     public static final String TODO_VIEW_TEXT_WRAP_WIDTH_KEY = "todo.view.text-wrap-width";
 
@@ -56,6 +59,7 @@ public final class PropertyConstants {
     public static final String TITLE_SWITCH_SPECIAL_TAG_HIDDEN_KEY = "title.tag.hidden.switch";
     public static final String TITLE_CHANGE_COPY_MODE_KEY = "title.copy-mode.choice";
     public static final String TITLE_CHOOSE_SEARCH_ON_TYPE_KEY = "title.search-on-type.choice";
+    public static final String TITLE_CHOOSE_INFINITE_SCROLL_KEY = "title.infinite-scroll.choice";
     public static final String TITLE_CHOOSE_LANGUAGE_KEY = "title.lang.choice";
     public static final String TITLE_EXPORT_TODO_KEY = "title.export.todo";
     public static final String TITLE_EXPORT_PATTERN_KEY = "title.export.pattern";
@@ -69,6 +73,9 @@ public final class PropertyConstants {
     public static final String TITLE_UPDATE_KEY = "title.update";
     public static final String TITLE_COPY_KEY = "title.copy";
     public static final String TITLE_EXPORT_KEY = "title.export";
+    public static final String TITLE_CANCEL_EXPORT_KEY = "title.export.cancel";
+    public static final String TITLE_IMPORT_KEY = "title.import";
+    public static final String TITLE_IMPORT_TODO_KEY = "title.import.todo";
     public static final String TITLE_ABOUT_KEY = "title.about";
 
 }
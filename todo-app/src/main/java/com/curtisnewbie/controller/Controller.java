@@ -5,9 +5,12 @@ import com.curtisnewbie.config.*;
 import com.curtisnewbie.dao.MapperFactory;
 import com.curtisnewbie.dao.MapperFactoryBase;
 import com.curtisnewbie.dao.TodoJob;
+import com.curtisnewbie.dao.TodoJobChange;
+import com.curtisnewbie.dao.TodoJobCursor;
 import com.curtisnewbie.dao.TodoJobMapper;
 import com.curtisnewbie.io.*;
 import com.curtisnewbie.util.*;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
@@ -19,20 +22,23 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.stage.FileChooser;
 import lombok.extern.slf4j.Slf4j;
-import reactor.core.publisher.Flux;
-import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 
 import java.io.File;
-import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static com.curtisnewbie.config.PropertyConstants.*;
 import static com.curtisnewbie.util.FileExtUtil.*;
@@ -41,7 +47,6 @@ import static com.curtisnewbie.util.MarginFactory.padding;
 import static com.curtisnewbie.util.TextFactory.selectableText;
 import static com.curtisnewbie.util.ToastUtil.toast;
 import static java.lang.String.*;
-import static java.util.concurrent.CompletableFuture.runAsync;
 import static javafx.application.Platform.runLater;
 
 /**
@@ -64,30 +69,23 @@ public class Controller {
     private final PropertiesLoader properties = PropertiesLoader.getInstance();
     /** Path to DB */
     private final String dbAbsPath;
-    /** AtomicReference for mapper */
-    private final AtomicReference<TodoJobMapper> _todoJobMapper = new AtomicReference<>();
+    /** Mapper, the future is completed once the mapper is initialized */
+    private final CompletableFuture<TodoJobMapper> _todoJobMapper;
     /** IO Handler, thread-safe */
     private final IOHandler ioHandler = IOHandlerFactory.getIOHandler();
     /** Atomic Reference to the Environment */
     private final AtomicReference<Environment> _environment = new AtomicReference<>();
 
-    /**
-     * The last date used and updated by the {@link #_subscribeTickingFluxForReloading()}, must be synchronized using
-     * {@link #lastTickDateLock}
-     */
-    @LockedBy(name = "lastTickDateLock")
-    private LocalDate lastTickDate = LocalDate.now();
-    private final Object lastTickDateLock = new Object();
-
-    /**
-     * Scheduler for reactor
-     */
-    private final Scheduler taskScheduler = Schedulers.fromExecutor(ForkJoinPool.commonPool());
-
     @RequiresFxThread
     private final TodoJobListView todoJobListView;
     @RequiresFxThread
     private volatile int volatileCurrPage = 1;
+    /**
+     * Cursors of the pages for keyset pagination, the element at {@code i} is the cursor of page {@code i + 1} (i.e.,
+     * sort key of the last row in page {@code i}), the first page's cursor is always null
+     */
+    @LockedBy(name = "pageCursors")
+    private final List<TodoJobCursor> pageCursors = new ArrayList<>(Collections.singletonList(null));
     @RequiresFxThread
     private final SearchBar searchBar;
     @RequiresFxThread
@@ -102,6 +100,24 @@ public class Controller {
     /** ObjectPrinter for {@link TodoJob }, thread-safe */
     private final ObjectPrinter<TodoJob> todoJobExportObjectPrinter;
 
+    /** Dispatcher of the page loads, the results are delivered in the FX thread */
+    private final SequencedDispatcher pageLoads = new SequencedDispatcher(Platform::runLater);
+
+    /** Prefetches of the pages next to the current page, they are cancelled when the search text changes */
+    @LockedBy(name = "prefetches")
+    private final List<CompletableFuture<Void>> prefetches = new ArrayList<>();
+
+    /** Exports to file in progress, they are cancelled by the user or on shutdown */
+    @LockedBy(name = "exports")
+    private final List<CompletableFuture<Integer>> exports = new ArrayList<>();
+
+    /** Windows loaded in infinite scroll mode, they are loaded using {@link #pageLoads} as well */
+    @RequiresFxThread
+    private final ScrollWindows scrollWindows = new ScrollWindows();
+
+    /** Timer that refreshes the time left of the to-dos displayed when the date changes */
+    private final DayRolloverScheduler dayRolloverScheduler;
+
     /**
      * Create and bind the new Controller to a BorderPane
      */
@@ -111,7 +127,15 @@ public class Controller {
 
         final MapperFactory mapperFactory = new MapperFactoryBase();
         dbAbsPath = mapperFactory.getDatabaseAbsolutePath();
-        _prepareMapperAsync(mapperFactory);
+        _todoJobMapper = mapperFactory.getNewTodoJobMapperAsync()
+                .whenComplete((mapper, err) -> {
+                    if (err != null) {
+                        log.error("Failed to initialize TodoJobMapper", err);
+                        runLater(() -> showDatabaseError(err));
+                    } else {
+                        log.info("TodoJobMapper loaded");
+                    }
+                });
 
         // load locale-specific resource bundle
         setEnvironment(new Environment(ioHandler.readConfig()));
@@ -119,6 +143,7 @@ public class Controller {
 
         // instantiate view components after we changed the locale
         todoJobListView = new TodoJobListView();
+        dayRolloverScheduler = new DayRolloverScheduler(() -> runLater(todoJobListView::refreshTimeLeft));
         searchBar = new SearchBar();
         quickTodoBar = new QuickTodoBar();
         paginationBar = new PaginationBar(volatileCurrPage);
@@ -130,8 +155,14 @@ public class Controller {
         _setupQuickTodoBar();
         _setupPaginationBar();
 
-        // reload page when we are on next day
-        _subscribeTickingFluxForReloading();
+        // refresh the time left when we are on next day
+        dayRolloverScheduler.start();
+
+        // reload when the committed changes may affect current page
+        _todoJobMapper.thenAccept(m -> m.addChangeListener(this::onTodoJobsChanged));
+
+        // stop writing the files being exported
+        App.registerOnClose(this::cancelExports);
     }
 
     /** Initialize a Controller that is bound to the given BorderPane */
@@ -146,6 +177,22 @@ public class Controller {
         controller.loadCurrPageAsync();
     }
 
+    /**
+     * Show that the database cannot be used, nothing is loaded or written afterwards, as every operation composes on
+     * the mapper that is failed to initialize
+     */
+    @RequiresFxThread
+    private void showDatabaseError(Throwable err) {
+        final Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setResizable(true);
+        alert.setTitle("Error");
+        alert.setContentText(format("Failed to initialize database '%s', to-dos cannot be loaded or saved\n\n%s",
+                dbAbsPath, cause.getMessage()));
+        DialogUtil.disableHeader(alert);
+        alert.show();
+    }
+
     /**
      * Refresh view
      */
@@ -159,16 +206,20 @@ public class Controller {
      * Load next page asynchronously
      */
     private void loadNextPageAsync() {
-        _todoJobMapper().findByPageAsync(searchBar.getSearchTextField().getText(), volatileCurrPage + 1)
-                .thenAcceptAsync(list -> {
-                    runLater(() -> {
-                        if (list.isEmpty())
-                            return;
-                        volatileCurrPage += 1;
-                        paginationBar.setCurrPage(volatileCurrPage);
-                        todoJobListView.clearAndLoadList(list, getEnvironment());
-                    });
-                });
+        final int nextPage = volatileCurrPage + 1;
+        final TodoJobCursor cursor = getPageCursor(nextPage);
+        if (cursor == null)
+            return; // current page is empty, or it's not loaded yet
+
+        loadPageAsync(cursor, list -> {
+            if (list.isEmpty())
+                return;
+            volatileCurrPage = nextPage;
+            updatePageCursors(nextPage, list);
+            paginationBar.setCurrPage(volatileCurrPage);
+            todoJobListView.clearAndLoadList(list, getEnvironment());
+            prefetchAdjacentPages(nextPage);
+        });
     }
 
     /**
@@ -178,25 +229,222 @@ public class Controller {
         if (volatileCurrPage <= 1)
             return;
 
-        _todoJobMapper()
-                .findByPageAsync(searchBar.getSearchTextField().getText(), volatileCurrPage - 1)
-                .thenAcceptAsync(list -> {
-                    runLater(() -> {
-                        volatileCurrPage -= 1;
-                        paginationBar.setCurrPage(volatileCurrPage);
-                        todoJobListView.clearAndLoadList(list, getEnvironment());
-                    });
-                });
+        final int prevPage = volatileCurrPage - 1;
+        loadPageAsync(getPageCursor(prevPage), list -> {
+            volatileCurrPage = prevPage;
+            updatePageCursors(prevPage, list);
+            paginationBar.setCurrPage(volatileCurrPage);
+            todoJobListView.clearAndLoadList(list, getEnvironment());
+            prefetchAdjacentPages(prevPage);
+        });
+    }
+
+    /**
+     * Reload current page if the committed changes may affect it, it's called after the cached pages are evicted or
+     * patched for the changes, so the reload sees them
+     * <p>
+     * An inserted row may belong to any page, and the rows changed by another process are unknown, so current page is
+     * always reloaded for them, while a deleted row only matters when it's displayed. Updates are only made here, and
+     * they are already applied to the displayed rows.
+     * </p>
+     */
+    private void onTodoJobsChanged(List<TodoJobChange> changes) {
+        final List<Integer> deletedIds = new ArrayList<>();
+        for (TodoJobChange c : changes) {
+            switch (c.getType()) {
+                case INSERT:
+                case EXTERNAL:
+                    runLater(this::loadCurrPageAsync);
+                    return;
+                case DELETE:
+                    deletedIds.add(c.getId());
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (deletedIds.isEmpty())
+            return;
+        runLater(() -> {
+            for (Integer id : deletedIds) {
+                if (todoJobListView.getById(id) != null) {
+                    loadCurrPageAsync();
+                    return;
+                }
+            }
+        });
     }
 
     /**
      * Reload current page asynchronously
      */
     private void loadCurrPageAsync() {
-        _todoJobMapper().findByPageAsync(searchBar.getSearchTextField().getText(), volatileCurrPage)
-                .thenAcceptAsync(list -> {
-                    runLater(() -> todoJobListView.clearAndLoadList(list, getEnvironment()));
-                });
+        if (getEnvironment().isInfiniteScrollEnabled()) {
+            runLater(() -> reloadWindows(false));
+            return;
+        }
+
+        final int currPage = volatileCurrPage;
+        loadPageAsync(getPageCursor(currPage), list -> {
+            updatePageCursors(currPage, list);
+            todoJobListView.clearAndLoadList(list, getEnvironment());
+            prefetchAdjacentPages(currPage);
+        });
+    }
+
+    /**
+     * Load the page that starts right after the cursor, only the latest page load is delivered, the older ones are
+     * cancelled (including the queries that are still running)
+     *
+     * @param onLoaded called in the FX thread with the rows of the page
+     */
+    private void loadPageAsync(TodoJobCursor cursor, Consumer<List<TodoJob>> onLoaded) {
+        final String searchText = searchBar.getSearchTextField().getText();
+        pageLoads.dispatch(() -> withTodoJobMapper(m -> m.findByCursorAsync(searchText, cursor)), onLoaded);
+    }
+
+    /**
+     * Prefetch the pages before and after the page that is just loaded, so that moving to them doesn't wait for the
+     * database
+     */
+    private void prefetchAdjacentPages(int page) {
+        final String searchText = searchBar.getSearchTextField().getText();
+        final List<TodoJobCursor> cursors = new ArrayList<>(2);
+        if (page > 1)
+            cursors.add(getPageCursor(page - 1));
+        final TodoJobCursor next = getPageCursor(page + 1);
+        if (next != null)
+            cursors.add(next);
+
+        _todoJobMapper().thenAccept(m -> {
+            synchronized (prefetches) {
+                prefetches.removeIf(CompletableFuture::isDone);
+                for (TodoJobCursor c : cursors)
+                    prefetches.add(m.prefetchByCursorAsync(searchText, c));
+            }
+        });
+    }
+
+    /**
+     * Cancel the prefetches that are not finished yet
+     */
+    private void cancelPrefetches() {
+        synchronized (prefetches) {
+            for (CompletableFuture<Void> f : prefetches)
+                f.cancel(false);
+            prefetches.clear();
+        }
+    }
+
+    /**
+     * Load the window after the loaded ones in infinite scroll mode, nothing is loaded if another window is being
+     * loaded
+     */
+    @RequiresFxThread
+    private void loadNextWindow() {
+        scrollWindows.setVisibleRowCount(todoJobListView.getVisibleRowCount());
+        if (pageLoads.isPending() || !scrollWindows.canLoadNext())
+            return;
+
+        final int limit = scrollWindows.nextLimit();
+        loadWindowAsync(scrollWindows.nextCursor(), limit, list -> {
+            final boolean isFirst = scrollWindows.isEmpty();
+            scrollWindows.onNextLoaded(list, limit);
+            if (isFirst) {
+                todoJobListView.clearAndLoadList(list, getEnvironment());
+            } else {
+                todoJobListView.appendItems(list);
+                todoJobListView.removeFirstItems(scrollWindows.evictFromTop());
+            }
+            todoJobListView.checkScrollPosition();
+        });
+    }
+
+    /**
+     * Load the window before the loaded ones in infinite scroll mode, nothing is loaded if another window is being
+     * loaded
+     */
+    @RequiresFxThread
+    private void loadPrevWindow() {
+        scrollWindows.setVisibleRowCount(todoJobListView.getVisibleRowCount());
+        if (pageLoads.isPending() || !scrollWindows.canLoadPrev())
+            return;
+
+        final int limit = scrollWindows.prevLimit();
+        loadWindowAsync(scrollWindows.prevCursor(), limit, list -> {
+            final List<TodoJob> window = scrollWindows.onPrevLoaded(list, limit);
+            if (window == null) {
+                // rows are inserted into the window since it's evicted, it's split and loaded again
+                loadPrevWindow();
+                return;
+            }
+            todoJobListView.prependItems(window);
+            todoJobListView.removeLastItems(scrollWindows.evictFromBottom());
+            todoJobListView.checkScrollPosition();
+        });
+    }
+
+    /**
+     * Reload the loaded windows in infinite scroll mode, the first window is loaded if none is loaded yet
+     *
+     * @param scrollToTop whether to scroll to the top, or keep the rows displayed where they are
+     */
+    @RequiresFxThread
+    private void reloadWindows(boolean scrollToTop) {
+        scrollWindows.setVisibleRowCount(todoJobListView.getVisibleRowCount());
+        final int limit = scrollWindows.reloadLimit();
+        loadWindowAsync(scrollWindows.firstCursor(), limit, list -> {
+            scrollWindows.onReloaded(list, limit);
+            if (scrollToTop) {
+                todoJobListView.clearAndLoadList(list, getEnvironment());
+                todoJobListView.scrollToTop();
+            } else {
+                todoJobListView.reloadList(list, getEnvironment());
+            }
+            todoJobListView.checkScrollPosition();
+        });
+    }
+
+    /**
+     * Forget the windows loaded, the window being loaded is cancelled
+     */
+    @RequiresFxThread
+    private void resetWindows() {
+        pageLoads.cancel();
+        scrollWindows.reset();
+    }
+
+    /**
+     * Load the rows right after the cursor, the load is dispatched the same way as {@link #loadPageAsync(TodoJobCursor,
+     * Consumer)}
+     */
+    private void loadWindowAsync(TodoJobCursor cursor, int limit, Consumer<List<TodoJob>> onLoaded) {
+        final String searchText = searchBar.getSearchTextField().getText();
+        pageLoads.dispatch(() -> withTodoJobMapper(m -> m.findByCursorAsync(searchText, cursor, limit)), onLoaded);
+    }
+
+    /**
+     * Get cursor of the page, i.e., sort key of the last row in previous page
+     *
+     * @return cursor, or null if it's the first page or the cursor is unknown
+     */
+    private TodoJobCursor getPageCursor(int page) {
+        synchronized (pageCursors) {
+            return page - 1 < pageCursors.size() ? pageCursors.get(page - 1) : null;
+        }
+    }
+
+    /**
+     * Update the cursors after the page is loaded, the cursors after this page are discarded, since they may be
+     * outdated
+     */
+    private void updatePageCursors(int page, List<TodoJob> list) {
+        synchronized (pageCursors) {
+            while (pageCursors.size() > page)
+                pageCursors.remove(pageCursors.size() - 1);
+            if (pageCursors.size() == page && !list.isEmpty())
+                pageCursors.add(TodoJobCursor.of(list.get(list.size() - 1)));
+        }
     }
 
 
@@ -207,9 +455,12 @@ public class Controller {
                 .addMenuItem(properties.getLocalizedProperty(TITLE_UPDATE_KEY), this::_onUpdateHandler)
                 .addMenuItem(properties.getLocalizedProperty(TITLE_COPY_KEY), this::_onCopyHandler)
                 .addMenuItem(properties.getLocalizedProperty(TITLE_EXPORT_KEY), this::_onExportHandler)
+                .addMenuItem(properties.getLocalizedProperty(TITLE_CANCEL_EXPORT_KEY), this::_onCancelExportHandler)
+                .addMenuItem(properties.getLocalizedProperty(TITLE_IMPORT_KEY), this::_onImportHandler)
                 .addMenuItem(properties.getLocalizedProperty(TITLE_CHOOSE_LANGUAGE_KEY), this::_onLanguageHandler)
                 .addMenuItem(properties.getLocalizedProperty(TITLE_CHANGE_COPY_MODE_KEY), this::_onChangeCopyModeHandler)
                 .addMenuItem(properties.getLocalizedProperty(TITLE_CHOOSE_SEARCH_ON_TYPE_KEY), this::_searchOnTypingConfigHandler)
+                .addMenuItem(properties.getLocalizedProperty(TITLE_CHOOSE_INFINITE_SCROLL_KEY), this::_infiniteScrollConfigHandler)
                 .addMenuItem(properties.getLocalizedProperty(TITLE_EXPORT_PATTERN_KEY), this::_onChangeExportPatternHandler)
                 .addMenuItem(properties.getLocalizedProperty(TITLE_SWITCH_SPECIAL_TAG_ENABLE_KEY), this::_onToggleSecialTagEnabledConfigHandler)
                 .addMenuItem(properties.getLocalizedProperty(TITLE_SWITCH_QUICK_TODO_KEY), this::_onToggleQuickTodoHandler)
@@ -246,7 +497,7 @@ public class Controller {
 
     private void _onCopyHandler(ActionEvent e) {
         copySelected();
-        runAsync(() -> {
+        ExecutorRegistry.cpu().runAsync(() -> {
             final Environment env = getEnvironment();
             final SuggestionType type = SuggestionType.COPY_HANDLER;
             if (env.isSuggestionToggleOn(type)) {
@@ -293,8 +544,7 @@ public class Controller {
             }
 
             TodoJob newTodo = result.get();
-            _todoJobMapper().insertAsync(newTodo)
-                    .thenAcceptAsync(id -> loadCurrPageAsync())
+            _todoJobMapper().thenCompose(m -> m.insertAsync(newTodo))
                     .exceptionally(err -> {
                         toast("Failed to add new to-do, please try again\n\n" + err.getMessage());
                         return null;
@@ -307,7 +557,7 @@ public class Controller {
                             setEnvironment(env.toggleSuggestionOff(type));
                             writeConfigAsync();
                         }
-                    });
+                    }, ExecutorRegistry.cpu());
         });
 
     }
@@ -315,7 +565,7 @@ public class Controller {
     @RunInFxThread
     private void _onDeleteHandler(ActionEvent e) {
         deleteSelected(() -> {
-            runAsync(() -> {
+            ExecutorRegistry.cpu().runAsync(() -> {
                 final Environment env = getEnvironment();
                 final SuggestionType type = SuggestionType.DELETE_TODO_HANDLER;
                 if (env.isSuggestionToggleOn(type)) {
@@ -334,10 +584,8 @@ public class Controller {
             if (selected < 0)
                 return;
 
-            final TodoJobView jobView = todoJobListView.get(selected);
-            final TodoJob old = jobView.createTodoJobCopy();
-            final TodoJobDialog dialog = new TodoJobDialog(TodoJobDialog.DialogType.UPDATE_TODO_JOB,
-                    jobView.createTodoJobCopy());
+            final TodoJob old = todoJobListView.get(selected);
+            final TodoJobDialog dialog = new TodoJobDialog(TodoJobDialog.DialogType.UPDATE_TODO_JOB, new TodoJob(old));
             dialog.setTitle(properties.getLocalizedProperty(TITLE_UPDATE_TODO_NAME_KEY));
             Optional<TodoJob> result = dialog.showAndWait();
             if (!result.isPresent())
@@ -346,17 +594,58 @@ public class Controller {
             final TodoJob updated = result.get();
             updated.setDone(old.isDone());
             updated.setId(old.getId());
+            todoJobListView.update(updated);
+            persistUpdateAsync(old, updated);
+        });
+    }
+
+    /**
+     * Persist the change that is already applied to the row displayed
+     * <p>
+     * If the change is not persisted, the row is rolled back. If the change is persisted, the list is only reloaded when
+     * the row may no longer belong where it's displayed, e.g., it's moved to another position in the sort order, or it
+     * may no longer match the search text.
+     * </p>
+     *
+     * @param prev to-do before the change
+     * @param curr to-do after the change
+     */
+    private void persistUpdateAsync(TodoJob prev, TodoJob curr) {
+        final TodoJob persisted = new TodoJob(curr);
+        final String searchText = searchBar.getSearchTextField().getText();
+        final boolean isMoved = !TodoJobCursor.of(prev).equals(TodoJobCursor.of(persisted))
+                || (!StrUtil.isEmpty(searchText) && !Objects.equals(prev.getName(), persisted.getName()));
 
-            // executed in task scheduler, rather than in UI thread
-            _todoJobMapper()
-                    .updateByIdAsync(updated)
-                    .thenAcceptAsync(isUpdated -> {
-                        if (isUpdated)
+        _todoJobMapper()
+                .thenCompose(m -> m.updateByIdAsync(persisted))
+                .handle((isUpdated, err) -> {
+                    if (err != null)
+                        log.error("Failed to update to-do, id: {}", persisted.getId(), err);
+                    return err == null && isUpdated;
+                })
+                .thenAccept(isUpdated -> {
+                    if (isUpdated) {
+                        if (isMoved)
                             loadCurrPageAsync();
-                        else
-                            toast("Failed to update to-do, please try again");
-                    });
-        });
+                        return;
+                    }
+                    runLater(() -> rollbackUpdate(prev, persisted));
+                    toast("Failed to update to-do, please try again");
+                });
+    }
+
+    /**
+     * Roll back the change applied to the row, the list is reloaded instead if the row is changed again since then
+     */
+    @RequiresFxThread
+    private void rollbackUpdate(TodoJob prev, TodoJob curr) {
+        final TodoJob displayed = todoJobListView.getById(curr.getId());
+        if (displayed == null)
+            return;
+        if (displayed.equals(curr))
+            todoJobListView.update(prev);
+        else
+            loadCurrPageAsync();
     }
 
     @RunInFxThread
@@ -366,31 +655,29 @@ public class Controller {
             if (selected < 0)
                 return;
 
-            final TodoJobView tjv = todoJobListView.get(selected);
-            final TodoJob copy = tjv.createTodoJobCopy();
+            final TodoJob copy = todoJobListView.get(selected);
 
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setResizable(true);
             alert.setTitle(properties.getLocalizedProperty(TITLE_DELETE_KEY));
-            alert.setContentText(properties.getLocalizedProperty(TEXT_DELETE_CONFIRM_KEY) + "\n\n" + tjv.getName() + "\n");
+            alert.setContentText(properties.getLocalizedProperty(TEXT_DELETE_CONFIRM_KEY) + "\n\n" + copy.getName() + "\n");
             DialogUtil.disableHeader(alert);
             alert.showAndWait()
                     .filter(resp -> resp == ButtonType.OK)
-                    .ifPresent(resp -> doDeleteAndReloadAsync(tjv.getTodoJobId(), copy));
+                    .ifPresent(resp -> doDeleteAsync(copy.getId(), copy));
 
             if (afterDialog != null)
                 afterDialog.run();
         });
     }
 
-    private void doDeleteAndReloadAsync(int id, TodoJob copy) {
+    private void doDeleteAsync(int id, TodoJob copy) {
         _todoJobMapper()
-                .deleteByIdAsync(id)
+                .thenCompose(m -> m.deleteByIdAsync(id))
                 .thenAcceptAsync(isDeleted -> {
                     if (!isDeleted)
                         toast("Failed to delete to-do, please try again");
-                })
-                .thenRun(this::loadCurrPageAsync);
+                }, ExecutorRegistry.cpu());
     }
 
     @RunInFxThread
@@ -398,13 +685,12 @@ public class Controller {
         runLater(() -> {
             int selected = todoJobListView.getSelectedIndex();
             if (selected >= 0) {
-                final TodoJobView todoJobView = todoJobListView.get(selected);
+                final TodoJob todoJobCopy = todoJobListView.get(selected);
                 final Environment env = getEnvironment();
                 final String copied;
                 if (env.isCopyNameOnly()) {
-                    copied = env.isSpecialTagEnabled() ? Tag.EXCL.strip(todoJobView.getName()) : todoJobView.getName();
+                    copied = env.isSpecialTagEnabled() ? Tag.EXCL.strip(todoJobCopy.getName()) : todoJobCopy.getName();
                 } else {
-                    final TodoJob todoJobCopy = todoJobView.createTodoJobCopy();
                     copied = todoJobExportObjectPrinter.printObject(todoJobCopy, env.getPattern(), PrintContext.builder()
                             .environment(env)
                             .build());
@@ -415,8 +701,8 @@ public class Controller {
     }
 
     private void _onExportHandler(ActionEvent e) {
-        final CompletableFuture<LocalDate> c1 = _todoJobMapper().findEarliestDateAsync();
-        final CompletableFuture<LocalDate> c2 = _todoJobMapper().findLatestDateAsync();
+        final CompletableFuture<LocalDate> c1 = _todoJobMapper().thenCompose(TodoJobMapper::findEarliestDateAsync);
+        final CompletableFuture<LocalDate> c2 = _todoJobMapper().thenCompose(TodoJobMapper::findLatestDateAsync);
         CompletableFuture.allOf(c1, c2)
                 .thenApplyAsync(ignored -> {
                     try {
@@ -424,7 +710,7 @@ public class Controller {
                     } catch (InterruptedException | ExecutionException ex) {
                         throw new IllegalStateException(ex);
                     }
-                })
+                }, ExecutorRegistry.cpu())
                 .thenAcceptAsync(pair -> {
                     runLater(() -> {
                         if (todoJobListView.isEmpty())
@@ -463,31 +749,88 @@ public class Controller {
                                 .isNumbered(ep.isNumbered())
                                 .build();
 
-                        _todoJobMapper()
-                                .findBetweenDatesAsync(ep.getSearchText(), dateRange.getStart(), dateRange.getEnd())
-                                .thenAcceptAsync((list) -> {
-                                    final StringBuilder sb = new StringBuilder();
-                                    final int len = list.size();
-                                    for (int i = 0; i < len; i++) {
-                                        if (i > 0) sb.append("\n");
-                                        sb.append(todoJobExportObjectPrinter.printObject(list.get(i), exportPattern, printContext));
-                                    }
-                                    final String content = sb.toString();
-                                    if (isToFile)
-                                        ioHandler.writeObjectsAsync(sb.toString(), nFile);
-                                    else
-                                        copyToClipBoard(content, () -> {
-                                            toast(format("Copied %s Todos to clipboard", len), 1_500);
-                                        });
-                                });
+                        // the mapper is always completed here, since the date range is already loaded using it
+                        final TodoJobExporter exporter = new TodoJobExporter(_todoJobMapper().getNow(null), todoJobExportObjectPrinter);
+                        if (isToFile) {
+                            final CompletableFuture<Integer> export = exporter.exportAsync(nFile, ep.getSearchText(),
+                                    dateRange.getStart(), dateRange.getEnd(), exportPattern, printContext,
+                                    exported -> toast(format("Exported %d Todos", exported), 1_000));
+                            synchronized (exports) {
+                                exports.removeIf(CompletableFuture::isDone);
+                                exports.add(export);
+                            }
+                            export.thenAccept(count -> toast(format("Exported %d Todos to '%s'", count, nFile.getName()), 1_500))
+                                    .exceptionally(ex -> {
+                                        if (!export.isCancelled())
+                                            toast("Failed to export Todos\n\n" + ex.getMessage());
+                                        return null;
+                                    });
+                        } else {
+                            final StringBuilder sb = new StringBuilder();
+                            exporter.exportAsync(sb, ep.getSearchText(), dateRange.getStart(), dateRange.getEnd(),
+                                    exportPattern, printContext, null)
+                                    .thenAccept(count -> copyToClipBoard(sb.toString(), () -> {
+                                        toast(format("Copied %s Todos to clipboard", count), 1_500);
+                                    }));
+                        }
                     });
-                })
+                }, ExecutorRegistry.cpu())
                 .exceptionally(ex -> {
                     toast("Error occurred, please try again\n\n" + ex.getMessage());
                     return null;
                 });
     }
 
+    private void _onCancelExportHandler(ActionEvent e) {
+        final int cancelled = cancelExports();
+        if (cancelled > 0)
+            toast(format("Cancelled %d exports, the Todos exported are kept", cancelled), 1_500);
+        else
+            toast("No export in progress", 1_500);
+    }
+
+    /**
+     * Cancel the exports to file that are not finished yet, the files are closed with the Todos exported so far
+     *
+     * @return number of exports cancelled
+     */
+    private int cancelExports() {
+        int cancelled = 0;
+        synchronized (exports) {
+            for (CompletableFuture<Integer> f : exports) {
+                if (f.cancel(false))
+                    cancelled++;
+            }
+            exports.clear();
+        }
+        return cancelled;
+    }
+
+    @RunInFxThread
+    private void _onImportHandler(ActionEvent e) {
+        runLater(() -> {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle(properties.getLocalizedProperty(TITLE_IMPORT_TODO_KEY));
+            fileChooser.getExtensionFilters().add(jsonExtFilter());
+            final File file = fileChooser.showOpenDialog(App.getPrimaryStage());
+            if (file == null)
+                return;
+
+            toast(format("Importing Todos from '%s'", file.getName()), 1_500);
+            final AtomicInteger lastPercent = new AtomicInteger();
+            _todoJobMapper().thenCompose(mapper -> ioHandler.importTodoJobAsync(file, mapper, (imported, bytesRead, totalBytes) -> {
+                // report progress every 10 percents
+                final int percent = totalBytes > 0 ? (int) (bytesRead * 100 / totalBytes) : 100;
+                final int prev = lastPercent.get();
+                if (percent / 10 > prev / 10 && lastPercent.compareAndSet(prev, percent))
+                    toast(format("Imported %d Todos (%d%%)", imported, percent), 1_000);
+            })).thenAccept(count -> toast(format("Imported %d Todos", count), 3_000)).exceptionally(ex -> {
+                toast("Failed to import Todos\n\n" + ex.getMessage());
+                return null;
+            });
+        });
+    }
+
     @RunInFxThread
     private void _onAboutHandler(ActionEvent e) {
         runLater(() -> {
@@ -617,6 +960,46 @@ public class Controller {
         });
     }
 
+    @RunInFxThread
+    private void _infiniteScrollConfigHandler(ActionEvent e) {
+        final String enable = properties.getLocalizedProperty(TEXT_ENABLE);
+        final String disable = properties.getLocalizedProperty(TEXT_DISABLE);
+
+        runLater(() -> {
+            final Environment prevEnv = getEnvironment();
+            final boolean prevIsEnabled = prevEnv.isInfiniteScrollEnabled();
+            final ChoiceDialog<String> choiceDialog = new ChoiceDialog<>();
+            choiceDialog.setTitle(properties.getLocalizedProperty(TITLE_CHOOSE_INFINITE_SCROLL_KEY));
+            choiceDialog.setSelectedItem(prevIsEnabled ? enable : disable);
+            choiceDialog.getItems().add(enable);
+            choiceDialog.getItems().add(disable);
+            DialogUtil.disableHeader(choiceDialog);
+            final Optional<String> opt = choiceDialog.showAndWait();
+            if (!opt.isPresent())
+                return;
+
+            final boolean currIsEnabled = opt.get().equals(enable);
+            if (currIsEnabled == prevIsEnabled)
+                return;
+
+            setEnvironment(prevEnv.setInfiniteScrollEnabled(currIsEnabled));
+            writeConfigAsync();
+
+            // start over from the first row in either mode
+            innerPane.setBottom(currIsEnabled ? null : paginationBar);
+            todoJobListView.setInfiniteScrollEnabled(currIsEnabled);
+            cancelPrefetches();
+            resetWindows();
+            volatileCurrPage = 1;
+            updatePageCursors(1, Collections.emptyList());
+            paginationBar.setCurrPage(volatileCurrPage);
+            if (currIsEnabled)
+                reloadWindows(true);
+            else
+                loadCurrPageAsync();
+        });
+    }
+
     @RunInFxThread
     private void _onToggleSecialTagEnabledConfigHandler(ActionEvent e) {
         final String enable = properties.getLocalizedProperty(TEXT_ENABLE);
@@ -653,7 +1036,9 @@ public class Controller {
     private void _setupPaginationBar() {
         checkThreadConfinement();
 
-        innerPane.setBottom(paginationBar);
+        // pages are not used in infinite scroll mode
+        if (!getEnvironment().isInfiniteScrollEnabled())
+            innerPane.setBottom(paginationBar);
         paginationBar.getPrevPageBtn().setOnAction(e -> {
             loadPrevPageAsync();
         });
@@ -682,18 +1067,15 @@ public class Controller {
     }
 
     /**
-     * Insert to-do job and reload current page async
+     * Insert to-do job async, current page is reloaded when the insert is committed
      */
     private void doInsertTodo(TodoJob job) {
         _todoJobMapper()
-                .insertAsync(job)
+                .thenCompose(m -> m.insertAsync(job))
                 .thenAcceptAsync(id -> {
-                    if (id != null) {
-                        loadCurrPageAsync();
-                    } else {
+                    if (id == null)
                         toast("Unknown error happens when try to redo");
-                    }
-                });
+                }, ExecutorRegistry.cpu());
     }
 
     @RequiresFxThread
@@ -707,9 +1089,16 @@ public class Controller {
             runLater(() -> {
                 if (searchBar.isSearchTextChanged()) {
                     searchBar.setSearchTextChanged(false);
+                    cancelPrefetches();
                     volatileCurrPage = 1;
+                    updatePageCursors(1, Collections.emptyList());
                     paginationBar.setCurrPage(volatileCurrPage);
-                    loadCurrPageAsync();
+                    if (getEnvironment().isInfiniteScrollEnabled()) {
+                        resetWindows();
+                        reloadWindows(true);
+                    } else {
+                        loadCurrPageAsync();
+                    }
                 }
             });
         });
@@ -718,58 +1107,33 @@ public class Controller {
     /**
      * Get {@link TodoJobMapper }
      * <p>
-     * the process of initializing a new mapper is async, before returning the mapper, this method will wait until it's
-     * fully initialized
+     * The process of initializing the mapper is async, operations on the mapper should be composed on the returned
+     * future, so that nothing blocks while it's being initialized
      * </p>
      */
-    private TodoJobMapper _todoJobMapper() {
-        // before we use the mapper, we want to make sure that the mapper is initialised properly
-        TodoJobMapper todoJobMapper;
-        while ((todoJobMapper = this._todoJobMapper.get()) == null) {
-            log.debug("Waiting for TodoJobMapper to initialize");
-        }
-        return todoJobMapper;
+    private CompletableFuture<TodoJobMapper> _todoJobMapper() {
+        return _todoJobMapper;
     }
 
-    private void _subscribeTickingFluxForReloading() {
-        // register a flux that ticks every 5 seconds
-        Flux.interval(Duration.ofSeconds(5))
-                .subscribeOn(taskScheduler)
-                .subscribe((l) -> {
-                    boolean isNextDate = false;
-
-                    synchronized (lastTickDateLock) {
-                        LocalDate now = LocalDate.now();
-                        if (now.isAfter(lastTickDate)) {
-                            lastTickDate = now;
-                            isNextDate = true;
-                        }
-                    }
-
-                    if (isNextDate) {
-                        log.info("Next date, reload current page");
-                        // we are now on next date, reload current page to refresh the timeLeftLabel in TodoJobView
-                        loadCurrPageAsync();
-                    }
-                });
-    }
-
-    private void _prepareMapperAsync(MapperFactory mapperFactory) {
-        /**
-         * speed up initialisation process, we make it async, and we rely on the {@link #_todoJobMapper() } method to
-         * delay the timing that we retrieve the mapper
-         */
-        mapperFactory.getNewTodoJobMapperAsync()
-                .thenAcceptAsync((mapper) -> {
-                    if (this._todoJobMapper.compareAndSet(null, mapper)) {
-                        log.info("TodoJobMapper loaded");
-                    }
-                });
+    /**
+     * Apply the operation on {@link TodoJobMapper }
+     * <p>
+     * If the mapper is initialized, the future returned by the operation is returned as it is, so that cancelling it
+     * cancels the operation as well
+     * </p>
+     */
+    private <T> CompletableFuture<T> withTodoJobMapper(Function<TodoJobMapper, CompletableFuture<T>> operation) {
+        if (_todoJobMapper.isDone() && !_todoJobMapper.isCompletedExceptionally())
+            return operation.apply(_todoJobMapper.join());
+        return _todoJobMapper.thenCompose(operation);
     }
 
     private void _setupTodoJobListView() {
         this.innerPane.setCenter(this.todoJobListView);
         this.todoJobListView.setContextMenu(createCtxMenu());
+        todoJobListView.setInfiniteScrollEnabled(getEnvironment().isInfiniteScrollEnabled());
+        todoJobListView.onScrolledNearTop(this::loadPrevWindow);
+        todoJobListView.onScrolledNearBottom(this::loadNextWindow);
 
         todoJobListView.onKeyPressed(e -> {
             if (e.isControlDown() || e.isMetaDown()) { // metaDown is for mac
@@ -791,16 +1155,9 @@ public class Controller {
                     loadCurrPageAsync();
             }
         });
-        // do on each to-do changes
+        // do on each to-do changes, the change is already displayed
         todoJobListView.onModelChanged(evt -> {
-            _todoJobMapper()
-                    .updateByIdAsync((TodoJob) evt.getNewValue())
-                    .thenAcceptAsync(isUpdated -> {
-                        if (isUpdated)
-                            loadCurrPageAsync();
-                        else
-                            toast("Failed to update to-do, please try again");
-                    });
+            persistUpdateAsync((TodoJob) evt.getOldValue(), (TodoJob) evt.getNewValue());
         });
     }
 
@@ -0,0 +1,235 @@
+package com.curtisnewbie.controller;
+
+import com.curtisnewbie.dao.TodoJob;
+import com.curtisnewbie.dao.TodoJobCursor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * <p>
+ * Bookkeeping of the windows loaded for the infinite scroll mode
+ * </p>
+ * <p>
+ * The list is split into windows of rows fetched with keyset pagination, window {@code i} starts right after the sort
+ * key of the last row in window {@code i - 1}. At most {@link #MAX_LOADED_WINDOWS} contiguous windows are loaded, the
+ * window furthest from the viewport is evicted when another one is loaded, so the number of rows in memory is bounded
+ * however far the list is scrolled. Only the start cursor of an evicted window is kept, so that it can be loaded again
+ * when the list is scrolled back.
+ * </p>
+ * <p>
+ * This class is not thread-safe, it's only used in the FX thread
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+final class ScrollWindows {
+
+    /** Max number of windows loaded at the same time */
+    static final int MAX_LOADED_WINDOWS = 3;
+    /** Min number of rows in a window */
+    static final int MIN_WINDOW_SIZE = 10;
+    /** Number of screens of rows in a window */
+    static final int SCREENS_PER_WINDOW = 2;
+
+    /** start cursors of the windows, the first window's cursor is always null */
+    private final List<TodoJobCursor> starts = new ArrayList<>(Collections.singletonList(null));
+    /** number of rows in each loaded window, from top to bottom */
+    private final Deque<Integer> sizes = new ArrayDeque<>();
+    /** index of the first loaded window */
+    private int first = 0;
+    /** whether the last window is loaded */
+    private boolean endReached = false;
+    /** max number of rows in a window */
+    private int windowSize = MIN_WINDOW_SIZE;
+
+    /**
+     * Forget all windows, the next window loaded is the first one
+     */
+    void reset() {
+        starts.clear();
+        starts.add(null);
+        sizes.clear();
+        first = 0;
+        endReached = false;
+    }
+
+    /**
+     * Derive the max number of rows in the windows loaded afterwards from the number of rows that fit in the viewport,
+     * a window has {@link #SCREENS_PER_WINDOW} screens of rows, and at least {@link #MIN_WINDOW_SIZE} rows
+     */
+    void setVisibleRowCount(int visibleRowCount) {
+        this.windowSize = Math.max(MIN_WINDOW_SIZE, visibleRowCount * SCREENS_PER_WINDOW);
+    }
+
+    int getWindowSize() {
+        return windowSize;
+    }
+
+    /** Whether no window is loaded */
+    boolean isEmpty() {
+        return sizes.isEmpty();
+    }
+
+    /** Number of rows in the loaded windows */
+    int getLoadedRowCount() {
+        int count = 0;
+        for (int size : sizes)
+            count += size;
+        return count;
+    }
+
+    // ------------------------------ scrolling down -------------------
+
+    /** Whether there may be rows after the loaded windows */
+    boolean canLoadNext() {
+        return !endReached && starts.size() > first + sizes.size();
+    }
+
+    /** Cursor of the window after the loaded ones */
+    TodoJobCursor nextCursor() {
+        return starts.get(first + sizes.size());
+    }
+
+    /** Max number of rows fetched for the window after the loaded ones */
+    int nextLimit() {
+        return windowSize;
+    }
+
+    /**
+     * Append the window after the loaded ones
+     *
+     * @param rows  rows fetched from {@link #nextCursor()}
+     * @param limit limit used to fetch the rows
+     */
+    void onNextLoaded(List<TodoJob> rows, int limit) {
+        endReached = rows.size() < limit;
+        if (rows.isEmpty())
+            return;
+
+        final int index = first + sizes.size();
+        truncateStarts(index + 1);
+        sizes.addLast(rows.size());
+        starts.add(TodoJobCursor.of(rows.get(rows.size() - 1)));
+    }
+
+    /**
+     * Evict the first loaded windows if there are too many windows loaded
+     *
+     * @return number of rows to remove from the top of the list, may be 0
+     */
+    int evictFromTop() {
+        int evicted = 0;
+        while (sizes.size() > MAX_LOADED_WINDOWS) {
+            first++;
+            evicted += sizes.removeFirst();
+        }
+        return evicted;
+    }
+
+    // ------------------------------ scrolling up -------------------
+
+    /** Whether there are windows before the loaded ones */
+    boolean canLoadPrev() {
+        return first > 0;
+    }
+
+    /** Cursor of the window before the loaded ones */
+    TodoJobCursor prevCursor() {
+        return starts.get(first - 1);
+    }
+
+    /**
+     * Max number of rows fetched for the window before the loaded ones, it's greater than the window size, since rows
+     * may be inserted into the window after it's evicted
+     */
+    int prevLimit() {
+        return windowSize * 2;
+    }
+
+    /**
+     * Prepend the window before the loaded ones
+     * <p>
+     * The rows fetched may overlap with the first loaded window, these rows are dropped. If the rows don't reach the
+     * first loaded window (i.e., more rows than the limit are inserted into the window since it's evicted), the window
+     * is split at the last row fetched, and nothing is prepended, the window should be loaded again.
+     * </p>
+     *
+     * @param rows  rows fetched from {@link #prevCursor()}
+     * @param limit limit used to fetch the rows
+     * @return rows to prepend to the list, or null if the window should be loaded again
+     */
+    List<TodoJob> onPrevLoaded(List<TodoJob> rows, int limit) {
+        final TodoJobCursor end = starts.get(first);
+        final List<TodoJob> window = new ArrayList<>(rows.size());
+        for (TodoJob t : rows) {
+            if (TodoJobCursor.of(t).compareTo(end) <= 0)
+                window.add(t);
+        }
+
+        final TodoJobCursor last = window.isEmpty() ? null : TodoJobCursor.of(window.get(window.size() - 1));
+        if (window.size() == limit && last.compareTo(end) < 0) {
+            starts.add(first, last);
+            first++;
+            return null;
+        }
+        first--;
+        sizes.addFirst(window.size());
+        return window;
+    }
+
+    /**
+     * Evict the last loaded windows if there are too many windows loaded
+     *
+     * @return number of rows to remove from the bottom of the list, may be 0
+     */
+    int evictFromBottom() {
+        int evicted = 0;
+        while (sizes.size() > MAX_LOADED_WINDOWS) {
+            endReached = false;
+            evicted += sizes.removeLast();
+            truncateStarts(first + sizes.size() + 1);
+        }
+        return evicted;
+    }
+
+    // ------------------------------ reloading -------------------
+
+    /** Cursor of the first loaded window */
+    TodoJobCursor firstCursor() {
+        return starts.get(first);
+    }
+
+    /** Max number of rows fetched to reload the loaded windows */
+    int reloadLimit() {
+        return Math.max(windowSize, getLoadedRowCount());
+    }
+
+    /**
+     * Replace the loaded windows with the rows reloaded, the rows are split into windows again
+     *
+     * @param rows  rows fetched from {@link #firstCursor()}
+     * @param limit limit used to fetch the rows
+     */
+    void onReloaded(List<TodoJob> rows, int limit) {
+        truncateStarts(first + 1);
+        sizes.clear();
+        for (int i = 0; i < rows.size(); i += windowSize) {
+            final int end = Math.min(rows.size(), i + windowSize);
+            sizes.addLast(end - i);
+            starts.add(TodoJobCursor.of(rows.get(end - 1)));
+        }
+        endReached = rows.size() < limit;
+    }
+
+    /**
+     * Discard the cursors at and after the index, they may be outdated
+     */
+    private void truncateStarts(int index) {
+        while (starts.size() > index)
+            starts.remove(starts.size() - 1);
+    }
+}
@@ -3,10 +3,12 @@ package com.curtisnewbie.controller;
 import com.curtisnewbie.config.PropertiesLoader;
 import com.curtisnewbie.util.RequiresFxThread;
 import com.curtisnewbie.util.FxThreadUtil;
+import javafx.animation.PauseTransition;
 import javafx.beans.property.DoubleProperty;
 import javafx.scene.control.TextField;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,30 +29,44 @@ import static com.curtisnewbie.util.MarginFactory.padding;
 public class SearchBar extends VBox implements Refreshable {
 
     private static final PropertiesLoader propertiesLoader = PropertiesLoader.getInstance();
+    /** How long it waits after the last keystroke before searching on typing */
+    private static final Duration SEARCH_ON_TYPE_DELAY = Duration.millis(300);
     private final TextField searchTextField = new TextField();
     private final List<Runnable> onSearchTextFieldEnterPressed = new ArrayList<>();
     private boolean searchTextChanged = false;
     private String prevSearchText = "";
     private boolean searchOnTypeEnabled = false;
+    /** Debounces the keystrokes for searching on typing */
+    private final PauseTransition searchOnTypeDelay = new PauseTransition(SEARCH_ON_TYPE_DELAY);
 
     public SearchBar() {
         checkThreadConfinement();
+        searchOnTypeDelay.setOnFinished(e -> search());
         searchTextField.setOnKeyReleased(e -> {
-            if (!Objects.equals(e.getText(), prevSearchText)) {
+            final String text = searchTextField.getText();
+            if (!Objects.equals(text, prevSearchText)) {
                 searchTextChanged = true;
-                prevSearchText = e.getText();
+                prevSearchText = text;
             }
 
-            if (searchOnTypeEnabled || e.getCode().equals(KeyCode.ENTER)) {
-                for (Runnable r : onSearchTextFieldEnterPressed) {
-                    r.run();
-                }
+            if (e.getCode().equals(KeyCode.ENTER)) {
+                searchOnTypeDelay.stop();
+                search();
+            } else if (searchOnTypeEnabled) {
+                // only search once the user stops typing
+                searchOnTypeDelay.playFromStart();
             }
         });
 
         refresh();
     }
 
+    private void search() {
+        for (Runnable r : onSearchTextFieldEnterPressed) {
+            r.run();
+        }
+    }
+
     /**
      * Get searchTextField's {@code prefWidthProperty()}
      */
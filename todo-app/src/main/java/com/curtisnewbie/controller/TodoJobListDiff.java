@@ -0,0 +1,134 @@
+package com.curtisnewbie.controller;
+
+import com.curtisnewbie.dao.TodoJob;
+import javafx.collections.ObservableList;
+
+import java.util.*;
+
+/**
+ * <p>
+ * Diff of the to-dos displayed and the to-dos loaded, keyed by the ids
+ * </p>
+ * <p>
+ * A row that is in both lists keeps its instance, if its fields are changed, they are copied into the instance through
+ * the setters. Only the rows that are inserted, removed or moved change the {@code ObservableList}, the rows that keep
+ * their relative order are the longest increasing subsequence of their new positions, the other rows are moved (i.e.,
+ * removed and inserted again). Consecutive insertions and removals are applied as ranges, and the list is replaced as a
+ * whole if no row is kept.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+final class TodoJobListDiff {
+
+    private TodoJobListDiff() {
+    }
+
+    /**
+     * Update the items to the loaded rows
+     *
+     * @param items items of the ListView
+     * @param rows  rows loaded, the ones inserted into the items are not copied
+     * @return instances of the rows that are patched, compared by identity
+     */
+    static Set<TodoJob> apply(ObservableList<TodoJob> items, List<TodoJob> rows) {
+        final Map<Integer, Integer> newIndexOf = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).getId() != null)
+                newIndexOf.put(rows.get(i).getId(), i);
+        }
+
+        // new positions of the rows kept, in their current order
+        final int[] positions = new int[items.size()];
+        boolean anyKept = false;
+        for (int i = 0; i < items.size(); i++) {
+            final Integer pos = newIndexOf.get(items.get(i).getId());
+            positions[i] = pos == null ? -1 : pos;
+            anyKept |= pos != null;
+        }
+        if (!anyKept) {
+            items.setAll(rows);
+            return Collections.emptySet();
+        }
+
+        // remove the rows that are not kept, or not in the longest increasing subsequence, from the bottom up
+        final boolean[] stable = longestIncreasingSubsequence(positions);
+        int end = items.size();
+        while (end > 0) {
+            if (stable[end - 1]) {
+                end--;
+                continue;
+            }
+            int start = end - 1;
+            while (start > 0 && !stable[start - 1])
+                start--;
+            items.remove(start, end);
+            end = start;
+        }
+
+        // the rows left are in the same order as they are in the new list, insert the missing ones in between
+        final Set<TodoJob> patched = Collections.newSetFromMap(new IdentityHashMap<>());
+        int i = 0;
+        while (i < rows.size()) {
+            final TodoJob row = rows.get(i);
+            if (i < items.size() && Objects.equals(items.get(i).getId(), row.getId())) {
+                final TodoJob item = items.get(i);
+                if (!item.equals(row)) {
+                    patch(item, row);
+                    patched.add(item);
+                }
+                i++;
+                continue;
+            }
+            int j = i + 1;
+            while (j < rows.size() && (i >= items.size() || !Objects.equals(items.get(i).getId(), rows.get(j).getId())))
+                j++;
+            items.addAll(i, rows.subList(i, j));
+            i = j;
+        }
+        return patched;
+    }
+
+    /**
+     * Copy the fields of the row into the item, except the id
+     */
+    static void patch(TodoJob item, TodoJob row) {
+        item.setName(row.getName());
+        item.setDone(row.isDone());
+        item.setExpectedEndDate(row.getExpectedEndDate());
+        item.setActualEndDate(row.getActualEndDate());
+    }
+
+    /**
+     * Find the longest strictly increasing subsequence, negative values are never included
+     *
+     * @return whether each element is in the subsequence
+     */
+    static boolean[] longestIncreasingSubsequence(int[] values) {
+        // tails[k] is the index of the smallest tail of the increasing subsequences of length k + 1
+        final int[] tails = new int[values.length];
+        final int[] prev = new int[values.length];
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] < 0)
+                continue;
+            int lo = 0, hi = length;
+            while (lo < hi) {
+                final int mid = (lo + hi) >>> 1;
+                if (values[tails[mid]] < values[i])
+                    lo = mid + 1;
+                else
+                    hi = mid;
+            }
+            prev[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == length)
+                length++;
+        }
+
+        final boolean[] included = new boolean[values.length];
+        for (int k = length > 0 ? tails[length - 1] : -1; k >= 0; k = prev[k])
+            included[k] = true;
+        return included;
+    }
+}
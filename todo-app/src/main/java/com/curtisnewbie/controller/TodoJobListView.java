@@ -7,6 +7,7 @@ import javafx.beans.property.*;
 import javafx.event.EventHandler;
 import javafx.scene.*;
 import javafx.scene.control.*;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.scene.input.*;
 import javafx.scene.layout.*;
 
@@ -18,7 +19,22 @@ import static com.curtisnewbie.util.FxThreadUtil.*;
 
 
 /**
- * ListView for TodoJobView
+ * <p>
+ * ListView for TodoJob
+ * </p>
+ * <p>
+ * Each to-do is displayed by a {@link TodoJobView} inside a cell, the cells (and their views) are recycled as the list
+ * is scrolled, so only the visible rows have nodes
+ * </p>
+ * <p>
+ * Loading a list is diffed against the rows displayed by the ids (see {@link TodoJobListDiff}), so reloading the same
+ * page keeps the selection and the scroll position, and only the cells of the changed rows are updated
+ * </p>
+ * <p>
+ * In infinite scroll mode, the callbacks registered with {@link #onScrolledNearTop(Runnable)} and {@link
+ * #onScrolledNearBottom(Runnable)} are called when the viewport is within a screen of rows from either end of the list,
+ * so that more rows can be loaded before they are needed
+ * </p>
  *
  * @author yongj.zhuang
  */
@@ -26,10 +42,33 @@ import static com.curtisnewbie.util.FxThreadUtil.*;
 public class TodoJobListView extends BorderPane {
 
     private static final int LISTVIEW_PADDING = 55;
-    private final ListView<TodoJobView> listView = new ListView<>();
+    /** Estimated height of a row, used before any row is displayed */
+    private static final double ESTIMATED_ROW_HEIGHT = 35;
+    private final ListView<TodoJob> listView = new ListView<>();
     private PropertyChangeListener propertyChangeListener;
+    /** Environment used by the cells, it's updated on each load */
+    private Environment environment;
+    /** VirtualFlow of the ListView, it's null until the skin is created */
+    private VirtualFlow<?> flow;
+    private boolean infiniteScrollEnabled = false;
+    private Runnable onScrolledNearTop;
+    private Runnable onScrolledNearBottom;
+    /** Whether the items are being changed, the callbacks are not called in the meantime */
+    private boolean adjusting = false;
+    /** Cells created by the ListView */
+    private final Set<TodoJobCell> cells = Collections.newSetFromMap(new WeakHashMap<>());
 
     public TodoJobListView() {
+        listView.setCellFactory(lv -> {
+            final TodoJobCell cell = new TodoJobCell();
+            cells.add(cell);
+            return cell;
+        });
+        listView.skinProperty().addListener((obs, prev, curr) -> {
+            flow = (VirtualFlow<?>) listView.lookup(".virtual-flow");
+            if (flow != null)
+                flow.positionProperty().addListener((o, prevPos, currPos) -> onScrollPositionChanged());
+        });
         this.setCenter(listView);
     }
 
@@ -44,14 +83,95 @@ public class TodoJobListView extends BorderPane {
     /** Load Todos into ListView */
     public void clearAndLoadList(List<TodoJob> list, Environment environment) {
         checkThreadConfinement();
-        listView.getItems().clear();
+        updateEnvironment(environment);
 
-        if (list == null)
+        if (list == null) {
+            listView.getItems().clear();
             return;
+        }
+        refreshCells(TodoJobListDiff.apply(listView.getItems(), list));
+    }
+
+    /** Load Todos into ListView, the rows displayed stay where they are */
+    public void reloadList(List<TodoJob> list, Environment environment) {
+        checkThreadConfinement();
+        updateEnvironment(environment);
+        keepingPosition(0, () -> refreshCells(TodoJobListDiff.apply(listView.getItems(), list)));
+    }
+
+    /** Append Todos to the end of the list */
+    public void appendItems(List<TodoJob> list) {
+        checkThreadConfinement();
+        listView.getItems().addAll(list);
+    }
+
+    /** Insert Todos at the beginning of the list, the rows displayed stay where they are */
+    public void prependItems(List<TodoJob> list) {
+        checkThreadConfinement();
+        keepingPosition(list.size(), () -> listView.getItems().addAll(0, list));
+    }
+
+    /** Remove the first n Todos, the rows displayed stay where they are */
+    public void removeFirstItems(int n) {
+        checkThreadConfinement();
+        if (n <= 0)
+            return;
+        keepingPosition(-n, () -> listView.getItems().remove(0, n));
+    }
 
-        list.stream()
-                .map(t -> new TodoJobView(t, environment))
-                .forEach(this::displayTodoJobView);
+    /** Remove the last n Todos */
+    public void removeLastItems(int n) {
+        checkThreadConfinement();
+        if (n <= 0)
+            return;
+        final int size = listView.getItems().size();
+        listView.getItems().remove(size - n, size);
+    }
+
+    public void scrollToTop() {
+        listView.scrollTo(0);
+    }
+
+    /**
+     * Enable or disable infinite scroll mode, the callbacks are only called when it's enabled
+     */
+    public void setInfiniteScrollEnabled(boolean infiniteScrollEnabled) {
+        this.infiniteScrollEnabled = infiniteScrollEnabled;
+    }
+
+    /** Register callback that is called when the viewport is near the top of the list in infinite scroll mode */
+    public void onScrolledNearTop(Runnable onScrolledNearTop) {
+        this.onScrolledNearTop = onScrolledNearTop;
+    }
+
+    /** Register callback that is called when the viewport is near the bottom of the list in infinite scroll mode */
+    public void onScrolledNearBottom(Runnable onScrolledNearBottom) {
+        this.onScrolledNearBottom = onScrolledNearBottom;
+    }
+
+    /**
+     * Check whether the viewport is near either end of the list, and call the callbacks if so
+     * <p>
+     * It's called whenever the list is scrolled, it should also be called after rows are loaded, since the viewport
+     * may still be near the end without being scrolled
+     * </p>
+     */
+    public void checkScrollPosition() {
+        checkThreadConfinement();
+        listView.layout();
+        onScrollPositionChanged();
+    }
+
+    /**
+     * Get number of rows that fit in the viewport, it's estimated if no row is displayed yet
+     */
+    public int getVisibleRowCount() {
+        final IndexedCell<?> firstCell = flow == null ? null : flow.getFirstVisibleCell();
+        final IndexedCell<?> lastCell = flow == null ? null : flow.getLastVisibleCell();
+        if (firstCell != null && lastCell != null && lastCell.getIndex() > firstCell.getIndex()
+                && lastCell.getIndex() < listView.getItems().size() - 1)
+            return lastCell.getIndex() - firstCell.getIndex() + 1;
+        return Math.max(1, (int) Math.ceil(listView.getHeight() / ESTIMATED_ROW_HEIGHT));
     }
 
     public void setContextMenu(ContextMenu contextMenu) {
@@ -62,11 +182,52 @@ public class TodoJobListView extends BorderPane {
         return listView.getSelectionModel().getSelectedIndex();
     }
 
-    public TodoJobView get(int index) {
-        return listView.getItems().get(index);
+    /**
+     * Get copy of the to-do at the index
+     */
+    public TodoJob get(int index) {
+        return new TodoJob(listView.getItems().get(index));
+    }
+
+    /**
+     * Get copy of the to-do with the id, or null if it's not displayed
+     */
+    public TodoJob getById(int id) {
+        final TodoJob item = findById(id);
+        return item == null ? null : new TodoJob(item);
+    }
+
+    /**
+     * Apply the change to the displayed to-do with the same id, the row stays where it is, even if the change moves it
+     * to another position in the sort order
+     *
+     * @return copy of the to-do before the change, or null if it's not displayed
+     */
+    public TodoJob update(TodoJob todoJob) {
+        checkThreadConfinement();
+        final TodoJob item = todoJob.getId() == null ? null : findById(todoJob.getId());
+        if (item == null)
+            return null;
+
+        final TodoJob prev = new TodoJob(item);
+        TodoJobListDiff.patch(item, todoJob);
+        for (TodoJobCell cell : cells) {
+            if (cell.getItem() == item)
+                cell.refresh();
+        }
+        return prev;
+    }
+
+    /**
+     * Recompute the time left of the to-dos displayed, nothing is reloaded
+     */
+    public void refreshTimeLeft() {
+        checkThreadConfinement();
+        for (TodoJobCell cell : cells)
+            cell.refreshTimeLeft();
     }
 
-    public TodoJobView remove(int index) {
+    public TodoJob remove(int index) {
         return listView.getItems().remove(index);
     }
 
@@ -76,22 +237,145 @@ public class TodoJobListView extends BorderPane {
 
     // ------------------------------------ private helper methods ------------------------
 
+    private void onScrollPositionChanged() {
+        if (!infiniteScrollEnabled || adjusting)
+            return;
+
+        final int threshold = getVisibleRowCount();
+        final int size = listView.getItems().size();
+        final IndexedCell<?> firstCell = flow == null ? null : flow.getFirstVisibleCell();
+        final IndexedCell<?> lastCell = flow == null ? null : flow.getLastVisibleCell();
+        final boolean nearTop = firstCell == null || firstCell.getIndex() < threshold;
+        final boolean nearBottom = lastCell == null || lastCell.getIndex() >= size - threshold;
+
+        // the rows below are requested first, the list is filled from top to bottom
+        if (nearBottom && onScrolledNearBottom != null)
+            onScrolledNearBottom.run();
+        if (nearTop && onScrolledNearTop != null)
+            onScrolledNearTop.run();
+    }
+
+    private void updateEnvironment(Environment environment) {
+        if (this.environment != environment) {
+            // e.g., language is changed, cells are re-created
+            this.environment = environment;
+            listView.refresh();
+        }
+    }
+
     /**
-     * <p>
-     * Load {@code TodoJobView} into the {@code ListView}.
-     * </p>
-     * <p>
-     * The operation of adding the jobView to the ListView is always executed in Javafx's thread
-     * </p>
+     * Update the cells displaying the rows that are patched
      */
-    private void displayTodoJobView(TodoJobView jobView) {
-        if (propertyChangeListener != null)
-            jobView.onModelChange(propertyChangeListener);
+    private void refreshCells(Set<TodoJob> patched) {
+        if (patched.isEmpty())
+            return;
+        for (TodoJobCell cell : cells) {
+            if (cell.getItem() != null && patched.contains(cell.getItem()))
+                cell.refresh();
+        }
+    }
+
+    /**
+     * Apply the change to the items, and scroll the list so that the row displayed at the top is still at the top
+     *
+     * @param shift number of rows inserted (positive) or removed (negative) before the row displayed at the top, it's
+     *              only used if the row is no longer in the list
+     */
+    private void keepingPosition(int shift, Runnable change) {
+        final IndexedCell<?> firstCell = flow == null ? null : flow.getFirstVisibleCell();
+        if (firstCell == null) {
+            change.run();
+            return;
+        }
+        final Object top = firstCell.getItem();
+        // cell at the top may be partially scrolled out of the viewport
+        final double offset = firstCell.getLayoutY();
+        adjusting = true;
+        try {
+            change.run();
+            int index = indexOf(top);
+            if (index < 0)
+                index = firstCell.getIndex() + shift;
+            if (index < 0 || index >= listView.getItems().size())
+                return;
 
-        jobView.prefWidthProperty().bind(listView.widthProperty().subtract(LISTVIEW_PADDING));
-        jobView.bindTextWrappingWidthProperty(listView.widthProperty().subtract(LISTVIEW_PADDING)
-                .subtract(Integer.parseInt(PropertiesLoader.getInstance().getLocalizedProperty(TODO_VIEW_TEXT_WRAP_WIDTH_KEY))));
-        listView.getItems().add(jobView);
+            listView.layout();
+            flow.scrollToTop(index);
+            listView.layout();
+            flow.scrollPixels(-offset);
+        } finally {
+            adjusting = false;
+        }
     }
 
+    private TodoJob findById(int id) {
+        for (TodoJob item : listView.getItems()) {
+            if (item.getId() != null && item.getId() == id)
+                return item;
+        }
+        return null;
+    }
+
+    /**
+     * Find the index of the item by identity, rows kept by the diff are the same instances
+     */
+    private int indexOf(Object item) {
+        final List<TodoJob> items = listView.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == item)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Cell that displays the to-do with a {@link TodoJobView}, the view is created once and reused for whichever item
+     * the cell is displaying
+     */
+    private final class TodoJobCell extends ListCell<TodoJob> {
+
+        private TodoJobView jobView;
+
+        @Override
+        protected void updateItem(TodoJob item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(null);
+            if (empty || item == null) {
+                setGraphic(null);
+                return;
+            }
+
+            if (jobView == null)
+                jobView = createTodoJobView(item);
+            else
+                jobView.update(item, environment);
+            setGraphic(jobView);
+        }
+
+        /** Update the view after the item is patched */
+        private void refresh() {
+            if (jobView != null && getItem() != null)
+                jobView.update(getItem(), environment);
+        }
+
+        private void refreshTimeLeft() {
+            if (jobView != null && getItem() != null)
+                jobView.refreshTimeLeft();
+        }
+
+        private TodoJobView createTodoJobView(TodoJob item) {
+            final TodoJobView jobView = new TodoJobView(item, environment);
+            jobView.onModelChange(evt -> {
+                // keep the item in sync, the cell may be reused for other items before the list is reloaded
+                if (getItem() != null)
+                    TodoJobListDiff.patch(getItem(), (TodoJob) evt.getNewValue());
+                if (propertyChangeListener != null)
+                    propertyChangeListener.propertyChange(evt);
+            });
+            jobView.prefWidthProperty().bind(listView.widthProperty().subtract(LISTVIEW_PADDING));
+            jobView.bindTextWrappingWidthProperty(listView.widthProperty().subtract(LISTVIEW_PADDING)
+                    .subtract(Integer.parseInt(PropertiesLoader.getInstance().getLocalizedProperty(TODO_VIEW_TEXT_WRAP_WIDTH_KEY))));
+            return jobView;
+        }
+    }
 }
@@ -43,6 +43,10 @@ import static com.curtisnewbie.util.TextFactory.*;
  * Notice that this class do check if current thread is FX's UI thread, if not, a {@link ConcurrentModificationException
  * } may be thrown
  * </p>
+ * <p>
+ * The nodes are reused when another to-do is displayed with {@link #update(TodoJob, Environment)}, e.g., when the view
+ * is recycled by a {@link javafx.scene.control.ListCell}
+ * </p>
  *
  * @author yongjie.zhuang
  */
@@ -59,7 +63,7 @@ public class TodoJobView extends HBox {
     /**
      * Model inside this view
      */
-    private final TodoJob model;
+    private TodoJob model;
 
     /**
      * The name of this {@code TodoJob}
@@ -92,7 +96,7 @@ public class TodoJobView extends HBox {
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
 
     /** Environment configuration */
-    private final Environment environment;
+    private Environment environment;
 
     private final String DAYS = properties.getLocalizedProperty(TEXT_DAYS_KEY);
     private final String MONTHS = properties.getLocalizedProperty(TEXT_MONTHS_KEY);
@@ -107,27 +111,13 @@ public class TodoJobView extends HBox {
      */
     public TodoJobView(TodoJob todoJob, Environment environment) {
         checkThreadConfinement();
-        Objects.requireNonNull(todoJob);
-        Objects.requireNonNull(environment);
 
-        this.environment = environment;
-        this.model = new TodoJob(todoJob);
         this.doneLabel = new Label();
-        final String displayedName = environment.isSpecialTagHidden() ? Tag.EXCL.escape(model.getName()) : model.getName();
-        this.nameText = getClassicText(displayedName);
-        this.expectedEndDateLabel = classicLabel(toDDmmUUUUSlash(model.getExpectedEndDate()));
-        if (this.model.getActualEndDate() != null) {
-            this.actualEndDateLabel = classicLabel(toDDmmUUUUSlash(model.getActualEndDate()));
-        } else {
-            this.actualEndDateLabel = classicLabel("");
-        }
+        this.nameText = getClassicText("");
+        this.expectedEndDateLabel = classicLabel("");
+        this.actualEndDateLabel = classicLabel("");
         this.expectedEndDateLabel.setMinWidth(85);
         this.actualEndDateLabel.setMinWidth(85);
-
-        // update the timeLeftLabel
-        updateTimeLeftLabel();
-
-        this.doneCheckBox.setSelected(model.isDone());
         this.doneCheckBox.setOnAction(this::onDoneCheckBoxSelected);
         String checkboxName = properties.getLocalizedProperty(PropertyConstants.TEXT_DONE_KEY);
         Objects.requireNonNull(checkboxName);
@@ -146,10 +136,45 @@ public class TodoJobView extends HBox {
                         leftPaddedLabel(checkboxName),
                         doneCheckBox);
         HBox.setHgrow(this, Priority.SOMETIMES);
-        updateGraphicOnJobStatus(model.isDone());
+        update(todoJob, environment);
         this.requestFocus();
     }
 
+    /**
+     * Display another to-do, the nodes are reused
+     */
+    public void update(TodoJob todoJob, Environment environment) {
+        checkThreadConfinement();
+        Objects.requireNonNull(todoJob);
+        Objects.requireNonNull(environment);
+
+        this.environment = environment;
+        this.model = new TodoJob(todoJob);
+        final String displayedName = environment.isSpecialTagHidden() ? Tag.EXCL.escape(model.getName()) : model.getName();
+        this.nameText.setText(displayedName);
+        this.expectedEndDateLabel.setText(toDDmmUUUUSlash(model.getExpectedEndDate()));
+        if (this.model.getActualEndDate() != null) {
+            this.actualEndDateLabel.setText(toDDmmUUUUSlash(model.getActualEndDate()));
+        } else {
+            this.actualEndDateLabel.setText("");
+        }
+
+        // update the timeLeftLabel
+        updateTimeLeftLabel();
+
+        this.doneCheckBox.setSelected(model.isDone());
+        updateGraphicOnJobStatus(model.isDone());
+    }
+
+    /**
+     * Recompute the time left and the status graphic, e.g., when the date changes, they depend on the current date
+     */
+    public void refreshTimeLeft() {
+        checkThreadConfinement();
+        updateTimeLeftLabel();
+        updateGraphicOnJobStatus(model.isDone());
+    }
+
     /**
      * Set the expectedEndDate being displayed
      *
@@ -251,9 +276,8 @@ public class TodoJobView extends HBox {
         else
             this.doneLabel.setGraphic(ShapeFactory.orangeCircle());
 
-        if (environment.isStrikethroughEffectEnabled()) {
-            this.nameText.setStrikethrough(isJobFinished);
-        }
+        // the view may be reused, so it's always set
+        this.nameText.setStrikethrough(environment.isStrikethroughEffectEnabled() && isJobFinished);
     }
 
     /** make the internal checkbox not editable */
@@ -1,7 +1,5 @@
 package com.curtisnewbie.dao;
 
-import java.sql.Connection;
-
 /**
  * Abstract implementation of Mapper
  *
@@ -9,10 +7,19 @@ import java.sql.Connection;
  */
 public class AbstractMapper implements Mapper {
 
-    protected final Connection connection;
+    /** statement cache of the connection used for writes, it must only be used on the writer thread */
+    protected final StatementCache writer;
+
+    /** executor of the writer thread */
+    protected final BatchingWriteExecutor writeExecutor;
+
+    /** pool of read-only connections used for queries */
+    protected final ReadOnlyConnectionPool readers;
 
-    public AbstractMapper(Connection connection) {
-        this.connection = connection;
+    public AbstractMapper(StatementCache writer, BatchingWriteExecutor writeExecutor, ReadOnlyConnectionPool readers) {
+        this.writer = writer;
+        this.writeExecutor = writeExecutor;
+        this.readers = readers;
     }
 
 }
@@ -0,0 +1,250 @@
+package com.curtisnewbie.dao;
+
+import com.curtisnewbie.util.ExecutorRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Executor that runs all writes on a single dedicated thread, the writes queued are grouped into one transaction
+ * </p>
+ * <p>
+ * The writer thread takes the first queued write, then keeps draining the queue until there are {@code maxBatchSize}
+ * writes or the {@code batchWindowMs} is passed. The whole batch is committed at once, and each write runs inside its
+ * own savepoint, so that a failed write is rolled back without affecting others in the same batch.
+ * </p>
+ * <p>
+ * The future of each write is completed after the batch is committed, on an executor other than the writer thread.
+ * If a {@link TodoJobChangeNotifier} is given, the changes of the batch are published before the futures are completed.
+ * </p>
+ * <p>
+ * Tasks that need the connection but don't write (e.g., checking {@code PRAGMA data_version}) are submitted with
+ * {@link #submitOutsideTransaction(Supplier)}, they run on the writer thread between the transactions, without any
+ * savepoint or commit.
+ * </p>
+ * <p>
+ * This class is thread-safe
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public final class BatchingWriteExecutor {
+
+    private final Connection connection;
+    private final int maxBatchSize;
+    private final long batchWindowNanos;
+    private final BlockingQueue<WriteTask<?>> queue = new LinkedBlockingQueue<>();
+    /**
+     * executor that completes the futures, so that the dependent stages never run on the writer thread, even when the
+     * executor is full
+     */
+    private final Executor completionExecutor = ExecutorRegistry.cpu().withoutCallerRuns();
+    /** notifier of the changes made by the writes, nullable */
+    private final TodoJobChangeNotifier changeNotifier;
+
+    /**
+     * Create and start the executor
+     *
+     * @param connection    the connection for writes, it must not be used by any other thread afterwards
+     * @param maxBatchSize  max number of writes in a transaction
+     * @param batchWindowMs max time waiting for more writes after the first one is taken
+     */
+    public BatchingWriteExecutor(Connection connection, int maxBatchSize, long batchWindowMs) {
+        this(connection, maxBatchSize, batchWindowMs, null);
+    }
+
+    /**
+     * Create and start the executor
+     *
+     * @param connection     the connection for writes, it must not be used by any other thread afterwards
+     * @param maxBatchSize   max number of writes in a transaction
+     * @param batchWindowMs  max time waiting for more writes after the first one is taken
+     * @param changeNotifier notifier of the changes made through the connection, nullable
+     */
+    public BatchingWriteExecutor(Connection connection, int maxBatchSize, long batchWindowMs,
+                                 TodoJobChangeNotifier changeNotifier) {
+        Objects.requireNonNull(connection);
+        if (maxBatchSize <= 0)
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        if (batchWindowMs < 0)
+            throw new IllegalArgumentException("batchWindowMs must not be negative");
+        this.connection = connection;
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowMs);
+        this.changeNotifier = changeNotifier;
+
+        final Thread writerThread = new Thread(this::runLoop, "todo-app-db-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Submit a write, it's executed on the writer thread within a transaction
+     *
+     * @param write write, which may throw any exception to have it rolled back
+     * @return future of the write's result
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> write) {
+        Objects.requireNonNull(write);
+        final WriteTask<T> task = new WriteTask<>(write, true);
+        queue.add(task);
+        return task.future;
+    }
+
+    /**
+     * Submit a task that runs on the writer thread outside any transaction, it's not batched with the writes, and it
+     * must not write anything
+     *
+     * @param task task, it runs alone, the changes it notices are published right after it
+     * @return future of the task's result
+     */
+    public <T> CompletableFuture<T> submitOutsideTransaction(Supplier<T> task) {
+        Objects.requireNonNull(task);
+        final WriteTask<T> t = new WriteTask<>(task, false);
+        queue.add(t);
+        return t.future;
+    }
+
+    private void runLoop() {
+        final List<WriteTask<?>> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                final WriteTask<?> first = queue.take();
+                if (!first.transactional) {
+                    executeOutsideTransaction(first);
+                    continue;
+                }
+                batch.add(first);
+                final long deadline = System.nanoTime() + batchWindowNanos;
+                while (batch.size() < maxBatchSize) {
+                    final long remaining = deadline - System.nanoTime();
+                    final WriteTask<?> t = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (t == null)
+                        break;
+                    // no transaction is started yet, it doesn't wait for the batch
+                    if (!t.transactional)
+                        executeOutsideTransaction(t);
+                    else
+                        batch.add(t);
+                }
+                executeBatch(batch);
+            } catch (InterruptedException e) {
+                log.warn("Writer thread interrupted, pending writes are discarded");
+                for (WriteTask<?> t : batch)
+                    t.future.completeExceptionally(e);
+                return;
+            } catch (Throwable e) {
+                log.error("Unexpected error in writer thread, {} writes are failed", batch.size(), e);
+                if (changeNotifier != null)
+                    changeNotifier.discard();
+                for (WriteTask<?> t : batch)
+                    completionExecutor.execute(() -> t.future.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void executeBatch(List<WriteTask<?>> batch) {
+        final Object[] results = new Object[batch.size()];
+        final Throwable[] errors = new Throwable[batch.size()];
+        try {
+            connection.setAutoCommit(false);
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    final Savepoint sp = connection.setSavepoint();
+                    final int mark = changeNotifier != null ? changeNotifier.mark() : 0;
+                    try {
+                        results[i] = batch.get(i).write.get();
+                    } catch (Throwable e) {
+                        // errors are rolled back as well, or the half-done write would be committed with the others
+                        errors[i] = e;
+                        connection.rollback(sp);
+                        if (changeNotifier != null)
+                            changeNotifier.rollbackTo(mark);
+                    }
+                    connection.releaseSavepoint(sp);
+                }
+                connection.commit();
+            } catch (Throwable e) {
+                if (changeNotifier != null)
+                    changeNotifier.discard();
+                try {
+                    connection.rollback();
+                } catch (SQLException re) {
+                    e.addSuppressed(re);
+                }
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            log.error("Failed to commit {} writes", batch.size(), e);
+            for (WriteTask<?> t : batch)
+                completionExecutor.execute(() -> t.future.completeExceptionally(e));
+            return;
+        }
+
+        log.debug("Committed {} writes in one transaction", batch.size());
+        if (changeNotifier != null)
+            changeNotifier.publish();
+        for (int i = 0; i < batch.size(); i++) {
+            final WriteTask<?> t = batch.get(i);
+            final Object result = results[i];
+            final Throwable error = errors[i];
+            completionExecutor.execute(() -> t.complete(result, error));
+        }
+    }
+
+    private void executeOutsideTransaction(WriteTask<?> task) {
+        Object result = null;
+        Throwable error = null;
+        try {
+            result = task.write.get();
+        } catch (Throwable e) {
+            error = e;
+        }
+        if (changeNotifier != null) {
+            if (error == null)
+                changeNotifier.publish();
+            else
+                changeNotifier.discard();
+        }
+        final Object r = result;
+        final Throwable err = error;
+        completionExecutor.execute(() -> task.complete(r, err));
+    }
+
+    private static final class WriteTask<T> {
+        private final Supplier<T> write;
+        /** whether it runs in the transaction of a batch */
+        private final boolean transactional;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private WriteTask(Supplier<T> write, boolean transactional) {
+            this.write = write;
+            this.transactional = transactional;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object result, Throwable error) {
+            if (error != null)
+                future.completeExceptionally(error);
+            else
+                future.complete((T) result);
+        }
+    }
+}
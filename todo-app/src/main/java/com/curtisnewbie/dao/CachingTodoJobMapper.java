@@ -0,0 +1,637 @@
+package com.curtisnewbie.dao;
+
+import com.curtisnewbie.util.LockedBy;
+import com.curtisnewbie.util.StrUtil;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Decorator of {@link TodoJobMapper} that caches the pages, keyed by the search text, the cursor (or the page number)
+ * and the max number of rows in the page
+ * </p>
+ * <p>
+ * Writes made through this mapper only evict the pages that they may affect. A cursor page covers the rows from its
+ * cursor (exclusive) to its last row (inclusive), the rest of the list is not shifted by a write, so a page is evicted
+ * only when the old or new position of the written row is within this range. When the position of the row is not
+ * changed (e.g., only the name is updated), the row is patched in place. Pages found by page number are shifted by
+ * any insert or delete, so they are all evicted on every write.
+ * </p>
+ * <p>
+ * A write is committed before its future completes, so a page may be loaded in between and miss the write, or writes
+ * may be seen in a different order than they are committed. A page loaded while any write made through this mapper is
+ * in flight is returned to the callers but not kept in cache, and the pages are only patched when no other write is in
+ * flight, the affected pages are evicted otherwise. The pages are evicted or patched before the future of the write
+ * completes.
+ * </p>
+ * <p>
+ * Pages can be prefetched with {@link #prefetchByCursorAsync(String, TodoJobCursor)}. A page that is still being
+ * loaded is dropped, and its query is cancelled, once all the requests waiting for it (including the prefetches) are
+ * cancelled.
+ * </p>
+ * <p>
+ * The search text is not evaluated here, a written row is assumed to match every search. Records written by others
+ * are found through the changes published by the delegate. Each write made through this mapper claims the changes
+ * of its own rows, the ones left unclaimed after all writes in flight complete are made by others: the pages holding
+ * a row deleted by others are evicted, but an inserted or updated row may be moved to any page, and all pages are
+ * evicted for it, as well as when the database is changed by another process (see {@link TodoJobChange#EXTERNAL}).
+ * The changes are delivered to the listeners of this mapper only after the pages are evicted or patched for them,
+ * i.e., once no write made through this mapper is in flight, so that a listener reloading a page sees the changes.
+ * The rows streamed by {@link #findByPageFlux(String, int)} are not cached.
+ * </p>
+ * <p>
+ * This class is thread-safe
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public final class CachingTodoJobMapper implements TodoJobMapper {
+
+    private final TodoJobMapper delegate;
+    private final int capacity;
+    /** Max number of rows in a page returned by {@link #findByCursorAsync(String, TodoJobCursor)} */
+    private final int pageLimit;
+
+    /** Cached pages in access order, a page that is still being loaded is cached as well */
+    @LockedBy(name = "this")
+    private final LinkedHashMap<PageKey, CompletableFuture<List<TodoJob>>> pages;
+    /** Pages that are still being loaded */
+    @LockedBy(name = "this")
+    private final Map<CompletableFuture<List<TodoJob>>, Loading> loading = new IdentityHashMap<>();
+    /** Number of writes submitted to the delegate whose futures are not completed yet */
+    @LockedBy(name = "this")
+    private int writesInFlight = 0;
+    /** Incremented whenever the pages are evicted or patched by writes */
+    @LockedBy(name = "this")
+    private long generation = 0;
+    /** Changes published by the delegate, which are not yet claimed by the writes made through this mapper */
+    @LockedBy(name = "this")
+    private final List<TodoJobChange> unclaimed = new ArrayList<>();
+    /** Changes published by the delegate, which are not yet delivered to the listeners of this mapper */
+    @LockedBy(name = "this")
+    private final List<TodoJobChange> undelivered = new ArrayList<>();
+    private final List<TodoJobChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong prefetches = new AtomicLong();
+
+    /**
+     * @param delegate  mapper that actually queries the database
+     * @param capacity  max number of pages cached
+     * @param pageLimit max number of rows in a page returned by {@link #findByCursorAsync(String, TodoJobCursor)} of
+     *                  the delegate
+     */
+    public CachingTodoJobMapper(TodoJobMapper delegate, int capacity, int pageLimit) {
+        Objects.requireNonNull(delegate);
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        if (pageLimit <= 0)
+            throw new IllegalArgumentException("pageLimit must be greater than 0");
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.pageLimit = pageLimit;
+        this.pages = new LinkedHashMap<>(capacity, 0.75f, true);
+        delegate.addChangeListener(this::onChanged);
+    }
+
+    @Override
+    public CompletableFuture<List<TodoJob>> findByPageAsync(String name, int page) {
+        return getPage(new PageKey(name, null, page, pageLimit), () -> delegate.findByPageAsync(name, page));
+    }
+
+    @Override
+    public CompletableFuture<List<TodoJob>> findByCursorAsync(String name, TodoJobCursor cursor) {
+        return getPage(new PageKey(name, cursor, -1, pageLimit), () -> delegate.findByCursorAsync(name, cursor));
+    }
+
+    @Override
+    public CompletableFuture<List<TodoJob>> findByCursorAsync(String name, TodoJobCursor cursor, int limit) {
+        if (limit == pageLimit)
+            return findByCursorAsync(name, cursor);
+        return getPage(new PageKey(name, cursor, -1, limit), () -> delegate.findByCursorAsync(name, cursor, limit));
+    }
+
+    @Override
+    public CompletableFuture<Void> prefetchByCursorAsync(String name, TodoJobCursor cursor) {
+        final PageKey key = new PageKey(name, cursor, -1, pageLimit);
+        final CompletableFuture<List<TodoJob>> page;
+        synchronized (this) {
+            if (pages.containsKey(key))
+                return CompletableFuture.completedFuture(null);
+            page = loadPage(key, () -> delegate.findByCursorAsync(name, cursor));
+            addWaiter(page);
+        }
+        prefetches.incrementAndGet();
+        return waitFor(key, page, page.handle((rows, e) -> null));
+    }
+
+    /**
+     * Add listener, it's called on the writer thread, or on the thread completing a write made through this mapper,
+     * after the pages are evicted or patched for the changes
+     */
+    @Override
+    public void addChangeListener(TodoJobChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    @Override
+    public void removeChangeListener(TodoJobChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public Flux<TodoJob> findByPageFlux(String name, int page) {
+        return delegate.findByPageFlux(name, page);
+    }
+
+    @Override
+    public Flux<TodoJob> findBetweenDatesFlux(String name, LocalDate startDate, LocalDate endDate) {
+        return delegate.findBetweenDatesFlux(name, startDate, endDate);
+    }
+
+    @Override
+    public CompletableFuture<List<TodoJob>> findBetweenDatesAsync(String name, LocalDate startDate, LocalDate endDate) {
+        return delegate.findBetweenDatesAsync(name, startDate, endDate);
+    }
+
+    @Override
+    public CompletableFuture<Integer> findBetweenDatesAsync(String name, LocalDate startDate, LocalDate endDate,
+                                                            Predicate<TodoJob> consumer) {
+        return delegate.findBetweenDatesAsync(name, startDate, endDate, consumer);
+    }
+
+    @Override
+    public CompletableFuture<LocalDate> findEarliestDateAsync() {
+        return delegate.findEarliestDateAsync();
+    }
+
+    @Override
+    public CompletableFuture<LocalDate> findLatestDateAsync() {
+        return delegate.findLatestDateAsync();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateByIdAsync(TodoJob todoJob) {
+        final TodoJob written = new TodoJob(todoJob);
+        return write(() -> delegate.updateByIdAsync(todoJob), updated -> {
+            if (updated)
+                onWritten(Collections.singletonList(written), Collections.emptyList());
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteByIdAsync(int id) {
+        return write(() -> delegate.deleteByIdAsync(id), deleted -> {
+            if (deleted)
+                onWritten(Collections.emptyList(), Collections.singletonList(id));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> insertAsync(TodoJob todoJob) {
+        final TodoJob written = new TodoJob(todoJob);
+        // actual end date is not inserted
+        written.setActualEndDate(null);
+        return write(() -> delegate.insertAsync(todoJob), id -> {
+            if (id != null) {
+                written.setId(id);
+                onWritten(Collections.singletonList(written), Collections.emptyList());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Integer>> insertAllAsync(List<TodoJob> todoJobs) {
+        final List<TodoJob> written = copyOf(todoJobs);
+        return write(() -> delegate.insertAllAsync(todoJobs), ids -> {
+            for (int i = 0; i < ids.size(); i++)
+                written.get(i).setId(ids.get(i));
+            onWritten(written, Collections.emptyList());
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Boolean>> updateAllAsync(List<TodoJob> todoJobs) {
+        final List<TodoJob> written = copyOf(todoJobs);
+        return write(() -> delegate.updateAllAsync(todoJobs), outcomes -> {
+            final List<TodoJob> updated = new ArrayList<>(written.size());
+            for (int i = 0; i < outcomes.size(); i++) {
+                if (outcomes.get(i))
+                    updated.add(written.get(i));
+            }
+            onWritten(updated, Collections.emptyList());
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Boolean>> deleteByIdsAsync(int[] ids) {
+        final int[] copied = ids.clone();
+        return write(() -> delegate.deleteByIdsAsync(ids), outcomes -> {
+            final List<Integer> deleted = new ArrayList<>(copied.length);
+            for (int i = 0; i < outcomes.size(); i++) {
+                if (outcomes.get(i))
+                    deleted.add(copied[i]);
+            }
+            onWritten(Collections.emptyList(), deleted);
+        });
+    }
+
+    /** Number of times a page is found in cache */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** Number of times a page is loaded from the delegate */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /** Number of pages loaded by prefetches */
+    public long getPrefetchCount() {
+        return prefetches.get();
+    }
+
+    /** Ratio of hits to all lookups, 0 if there is no lookup yet */
+    public double getHitRatio() {
+        final long h = hits.get();
+        final long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /** Number of pages in cache */
+    public synchronized int size() {
+        return pages.size();
+    }
+
+    /**
+     * Evict all pages
+     */
+    public synchronized void clear() {
+        pages.clear();
+        generation++;
+    }
+
+    @Override
+    public String toString() {
+        return "CachingTodoJobMapper{" +
+                "size=" + size() +
+                ", capacity=" + capacity +
+                ", hits=" + hits.get() +
+                ", misses=" + misses.get() +
+                ", prefetches=" + prefetches.get() +
+                ", hitRatio=" + String.format("%.2f", getHitRatio()) +
+                '}';
+    }
+
+    // ------------------------------ helper methods -------------------
+
+    private CompletableFuture<List<TodoJob>> getPage(PageKey key, PageLoader loader) {
+        CompletableFuture<List<TodoJob>> page;
+        synchronized (this) {
+            page = pages.get(key);
+            if (page == null) {
+                page = loadPage(key, loader);
+                misses.incrementAndGet();
+            } else {
+                // a page that is still being loaded is shared as well
+                hits.incrementAndGet();
+            }
+            addWaiter(page);
+        }
+        // rows are mutable, callers always get their own copies
+        return waitFor(key, page, page.thenApply(CachingTodoJobMapper::copyOf));
+    }
+
+    /**
+     * Load the page and put it into cache, a page that fails to load is removed from cache
+     */
+    private CompletableFuture<List<TodoJob>> loadPage(PageKey key, PageLoader loader) {
+        final CompletableFuture<List<TodoJob>> query = loader.load();
+        final CompletableFuture<List<TodoJob>> page = query.thenApply(CachingTodoJobMapper::immutableCopyOf);
+        final long loadedAt;
+        final boolean writing;
+        synchronized (this) {
+            pages.put(key, page);
+            loading.put(page, new Loading(query));
+            if (pages.size() > capacity)
+                evictEldest();
+            loadedAt = generation;
+            writing = writesInFlight > 0;
+        }
+        page.whenComplete((rows, e) -> {
+            synchronized (this) {
+                loading.remove(page);
+                // the page may miss a write that is committed but not yet seen here
+                if (e != null || writing || generation != loadedAt)
+                    pages.remove(key, page);
+            }
+        });
+        return page;
+    }
+
+    /**
+     * Count the request as a waiter of the page if the page is still being loaded
+     */
+    private synchronized void addWaiter(CompletableFuture<List<TodoJob>> page) {
+        final Loading l = loading.get(page);
+        if (l != null)
+            l.waiters++;
+    }
+
+    /**
+     * Stop waiting for the page when the request is cancelled, the query is cancelled when no one is waiting
+     *
+     * @param request future returned to the waiter, it depends on the page
+     * @return the request
+     */
+    private <T> CompletableFuture<T> waitFor(PageKey key, CompletableFuture<List<TodoJob>> page, CompletableFuture<T> request) {
+        request.whenComplete((v, e) -> {
+            if (!request.isCancelled())
+                return;
+            final Loading l;
+            synchronized (this) {
+                l = loading.get(page);
+                if (l == null || --l.waiters > 0)
+                    return;
+                loading.remove(page);
+                pages.remove(key, page);
+            }
+            l.query.cancel(true);
+        });
+        return request;
+    }
+
+    private void evictEldest() {
+        final Iterator<CompletableFuture<List<TodoJob>>> it = pages.values().iterator();
+        it.next();
+        it.remove();
+    }
+
+    /**
+     * Submit the write to the delegate, {@code onCompleted} is called with the result of the write before the returned
+     * future completes
+     */
+    private <T> CompletableFuture<T> write(Supplier<CompletableFuture<T>> write, Consumer<T> onCompleted) {
+        final CompletableFuture<T> submitted;
+        synchronized (this) {
+            writesInFlight++;
+        }
+        try {
+            submitted = write.get();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                writesInFlight--;
+                evictUnclaimed();
+            }
+            deliver();
+            throw e;
+        }
+        return submitted.handle((result, e) -> {
+            synchronized (this) {
+                writesInFlight--;
+                if (e == null)
+                    onCompleted.accept(result);
+                evictUnclaimed();
+            }
+            deliver();
+            if (e != null)
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            return result;
+        });
+    }
+
+    /**
+     * Evict or patch the pages affected by the written rows, the pages are only patched when no other write is in
+     * flight, as the other writes may be committed before this one, but seen after it
+     *
+     * @param written    rows inserted or updated, as they are in the database
+     * @param deletedIds ids of rows deleted
+     */
+    private synchronized void onWritten(List<TodoJob> written, List<Integer> deletedIds) {
+        for (TodoJob t : written)
+            claim(t.getId(), false);
+        for (Integer id : deletedIds)
+            claim(id, true);
+        if (written.isEmpty() && deletedIds.isEmpty())
+            return;
+        generation++;
+
+        final boolean canPatch = writesInFlight == 0;
+        int evicted = 0;
+        int patched = 0;
+        for (Iterator<Map.Entry<PageKey, CompletableFuture<List<TodoJob>>>> it = pages.entrySet().iterator(); it.hasNext(); ) {
+            final Map.Entry<PageKey, CompletableFuture<List<TodoJob>>> e = it.next();
+            final PageKey key = e.getKey();
+            // a page still being loaded may or may not see the writes
+            if (!key.isCursorPage() || !isLoaded(e.getValue())) {
+                it.remove();
+                evicted++;
+                continue;
+            }
+
+            List<TodoJob> rows = e.getValue().join();
+            boolean evict = false;
+            for (Integer id : deletedIds) {
+                if (indexOf(rows, id) >= 0) {
+                    evict = true;
+                    break;
+                }
+            }
+            for (int i = 0; i < written.size() && !evict; i++) {
+                final TodoJob curr = written.get(i);
+                final int j = indexOf(rows, curr.getId());
+                if (j >= 0) {
+                    // the page holds the row as it was before the write
+                    final TodoJob prev = rows.get(j);
+                    final boolean samePosition = TodoJobCursor.of(prev).equals(TodoJobCursor.of(curr));
+                    if (canPatch && samePosition && (key.name.isEmpty() || Objects.equals(prev.getName(), curr.getName()))) {
+                        final List<TodoJob> copy = new ArrayList<>(rows);
+                        copy.set(j, new TodoJob(curr));
+                        rows = Collections.unmodifiableList(copy);
+                    } else {
+                        evict = true;
+                    }
+                } else if (covers(key, rows, TodoJobCursor.of(curr))) {
+                    evict = true;
+                }
+            }
+
+            if (evict) {
+                it.remove();
+                evicted++;
+            } else if (rows != e.getValue().join()) {
+                e.setValue(CompletableFuture.completedFuture(rows));
+                patched++;
+            }
+        }
+        log.debug("{} pages evicted, {} pages patched, {}", evicted, patched, this);
+    }
+
+    /**
+     * Keep the changes published until they are claimed, the writes made through this mapper are published before
+     * their futures complete
+     */
+    private void onChanged(List<TodoJobChange> changes) {
+        synchronized (this) {
+            undelivered.addAll(changes);
+            if (changes.contains(TodoJobChange.EXTERNAL)) {
+                unclaimed.clear();
+                clear();
+            } else {
+                unclaimed.addAll(changes);
+                evictUnclaimed();
+            }
+        }
+        deliver();
+    }
+
+    /**
+     * Deliver the changes to the listeners once no write made through this mapper is in flight, the pages are evicted
+     * or patched for the changes by then
+     */
+    private void deliver() {
+        final List<TodoJobChange> changes;
+        synchronized (this) {
+            if (writesInFlight > 0 || undelivered.isEmpty())
+                return;
+            changes = Collections.unmodifiableList(new ArrayList<>(undelivered));
+            undelivered.clear();
+        }
+        for (TodoJobChangeListener l : listeners) {
+            try {
+                l.onChanged(changes);
+            } catch (RuntimeException e) {
+                log.error("Change listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Remove the first unclaimed change of the row, either a delete or an insert/update
+     */
+    private synchronized void claim(Integer id, boolean deleted) {
+        for (Iterator<TodoJobChange> it = unclaimed.iterator(); it.hasNext(); ) {
+            final TodoJobChange c = it.next();
+            if (Objects.equals(c.getId(), id) && (c.getType() == TodoJobChange.Type.DELETE) == deleted) {
+                it.remove();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Evict the pages affected by the changes made by others, once no write made through this mapper is in flight,
+     * i.e., every change left unclaimed is not made here
+     */
+    private synchronized void evictUnclaimed() {
+        if (writesInFlight > 0 || unclaimed.isEmpty())
+            return;
+        List<Integer> deletedIds = new ArrayList<>(unclaimed.size());
+        for (TodoJobChange c : unclaimed) {
+            if (c.getType() != TodoJobChange.Type.DELETE) {
+                deletedIds = null;
+                break;
+            }
+            deletedIds.add(c.getId());
+        }
+        unclaimed.clear();
+        if (deletedIds == null) {
+            log.debug("Rows are inserted or updated by others, all pages are evicted");
+            clear();
+        } else {
+            onWritten(Collections.emptyList(), deletedIds);
+        }
+    }
+
+    /**
+     * Whether the sort key is within the range of the cursor page
+     */
+    private static boolean covers(PageKey key, List<TodoJob> rows, TodoJobCursor sortKey) {
+        if (key.cursor != null && key.cursor.compareTo(sortKey) >= 0)
+            return false;
+        return rows.size() < key.limit || sortKey.compareTo(TodoJobCursor.of(rows.get(rows.size() - 1))) <= 0;
+    }
+
+    private static boolean isLoaded(CompletableFuture<?> page) {
+        return page.isDone() && !page.isCompletedExceptionally();
+    }
+
+    private static int indexOf(List<TodoJob> rows, Integer id) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (Objects.equals(rows.get(i).getId(), id))
+                return i;
+        }
+        return -1;
+    }
+
+    private static List<TodoJob> copyOf(List<TodoJob> todoJobs) {
+        final List<TodoJob> copy = new ArrayList<>(todoJobs.size());
+        for (TodoJob t : todoJobs)
+            copy.add(new TodoJob(t));
+        return copy;
+    }
+
+    private static List<TodoJob> immutableCopyOf(List<TodoJob> todoJobs) {
+        return Collections.unmodifiableList(copyOf(todoJobs));
+    }
+
+    /**
+     * Page being loaded
+     */
+    private static final class Loading {
+
+        /** future returned by the delegate */
+        private final CompletableFuture<List<TodoJob>> query;
+        /** number of requests waiting for the page */
+        private int waiters = 0;
+
+        private Loading(CompletableFuture<List<TodoJob>> query) {
+            this.query = query;
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageLoader {
+        CompletableFuture<List<TodoJob>> load();
+    }
+
+    /**
+     * Key of a page, either a cursor page or a page found by page number
+     */
+    @EqualsAndHashCode
+    private static final class PageKey {
+
+        /** search text, empty string if there is none */
+        private final String name;
+        /** cursor of a cursor page, null for the first page or a page found by page number */
+        private final TodoJobCursor cursor;
+        /** page number, -1 for a cursor page */
+        private final int page;
+        /** max number of rows in the page, a page with less rows than this is the last page */
+        private final int limit;
+
+        private PageKey(String name, TodoJobCursor cursor, int page, int limit) {
+            this.name = StrUtil.isEmpty(name) ? "" : name;
+            this.cursor = cursor;
+            this.page = page;
+            this.limit = limit;
+        }
+
+        private boolean isCursorPage() {
+            return page < 0;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.curtisnewbie.dao;
+
+import com.curtisnewbie.util.ExecutorRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Future of a query, cancelling it interrupts the statement that is being executed (using {@link Statement#cancel()})
+ * </p>
+ * <p>
+ * The query registers the statement with {@link #begin(Statement)} before it's executed, and unregisters it with
+ * {@link #end()} once the rows are read, the connection must not be released in between. A query that is cancelled
+ * before it starts is never executed.
+ * </p>
+ * <p>
+ * This class is thread-safe
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+final class CancellableQuery<T> extends CompletableFuture<T> {
+
+    /** statement being executed, nullable */
+    private Statement running;
+
+    /**
+     * Run the query asynchronously in {@link ExecutorRegistry#db()}
+     *
+     * @param query query that registers its statements with the future passed in
+     */
+    static <T> CancellableQuery<T> supplyAsync(Function<CancellableQuery<T>, T> query) {
+        final CancellableQuery<T> future = new CancellableQuery<>();
+        CompletableFuture.runAsync(() -> {
+            if (future.isDone())
+                return; // cancelled before it starts
+            try {
+                future.complete(query.apply(future));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }, ExecutorRegistry.db());
+        return future;
+    }
+
+    /**
+     * Register the statement that is about to be executed
+     *
+     * @throws CancellationException if the query is already cancelled
+     */
+    synchronized void begin(Statement stmt) {
+        if (isCancelled())
+            throw new CancellationException();
+        running = stmt;
+    }
+
+    /**
+     * Unregister the statement
+     */
+    synchronized void end() {
+        running = null;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        final boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled)
+            interrupt();
+        return cancelled;
+    }
+
+    private synchronized void interrupt() {
+        if (running == null)
+            return;
+        try {
+            running.cancel();
+        } catch (SQLException e) {
+            log.warn("Failed to cancel statement", e);
+        }
+    }
+}
@@ -19,7 +19,8 @@ public interface MapperFactory {
     /**
      * Get new {@link TodoJobMapper}
      * <p>
-     * This method may block until the factory is fully initialized
+     * The future is completed once the factory is fully initialized, this method never blocks. It's completed
+     * exceptionally if the factory fails to initialize (e.g., the schema cannot be migrated).
      * </p>
      */
     CompletableFuture<TodoJobMapper> getNewTodoJobMapperAsync();
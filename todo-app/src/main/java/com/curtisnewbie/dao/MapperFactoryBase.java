@@ -1,18 +1,22 @@
 package com.curtisnewbie.dao;
 
+import com.curtisnewbie.config.PropertiesLoader;
 import com.curtisnewbie.dao.script.*;
+import com.curtisnewbie.util.ExecutorRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.sqlite.SQLiteConfig;
 import reactor.core.publisher.Mono;
 
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.curtisnewbie.config.PropertyConstants.DB_PAGE_CACHE_CAPACITY;
+import static com.curtisnewbie.config.PropertyConstants.DB_WRITE_BATCH_MAX_SIZE;
+import static com.curtisnewbie.config.PropertyConstants.DB_WRITE_BATCH_WINDOW_MS;
 
 /**
  * Factory of Mapper
@@ -25,48 +29,80 @@ public class MapperFactoryBase implements MapperFactory {
     private static final String DB_NAME = "todoapp.db";
     private static final String DIR_NAME = "todo-app";
     private static final String DB_ABS_PATH;
+    /** Max number of idle statements cached for each connection */
+    private static final int STATEMENT_CACHE_CAPACITY = 32;
+    /** Number of read-only connections */
+    private static final int READER_COUNT = ExecutorRegistry.DB_THREADS;
+    /** How long a connection waits for a lock held by another connection */
+    private static final int BUSY_TIMEOUT_MS = 5_000;
+
+    /** The only connection used for writes */
     private static final Connection conn;
+    private static final StatementCache writer;
+    private static final BatchingWriteExecutor writeExecutor;
+    /** Notifier of the changes made through {@link #conn} or by other connections */
+    private static final TodoJobChangeNotifier changeNotifier;
+    private static final ReadOnlyConnectionPool readers;
+    /** Max number of pages cached by each {@link TodoJobMapper} */
+    private static final int pageCacheCapacity;
 
     //  will be removed after initialization
-    private List<PreInitializationScript> preInitScripts = new ArrayList<>(Arrays.asList(
-            new InitialiseScript()
+    private PreInitializationScript schemaMigrationScript = new SchemaMigrationScript(new InitialiseScript(), Arrays.asList(
+            new CreateIndexScript(),
+            new CreateFullTextIndexScript(),
+            new MigrateToEpochDayScript()
     ));
     //  will be removed after initialization
     private ScriptRunner scriptRunner = new SimpleScriptRunner();
 
-    /** Whether the initialize scripts are finished */
-    private final AtomicBoolean isInitialized = new AtomicBoolean();
+    /** Completed once the initialize scripts are finished, completed exceptionally if any of them fails */
+    private final CompletableFuture<Void> initialized;
 
     static {
         try {
             String baseDir = System.getProperty("user.home") + File.separator + DIR_NAME;
             new File(baseDir).mkdirs();
             DB_ABS_PATH = baseDir + File.separator + DB_NAME;
-            conn = DriverManager.getConnection("jdbc:sqlite:" + DB_ABS_PATH);
+            final String url = "jdbc:sqlite:" + DB_ABS_PATH;
+
+            // WAL mode is persistent, readers opened later are in WAL mode as well
+            final SQLiteConfig config = new SQLiteConfig();
+            config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+            config.setBusyTimeout(BUSY_TIMEOUT_MS);
+            conn = DriverManager.getConnection(url, config.toProperties());
+            writer = new StatementCache(conn, STATEMENT_CACHE_CAPACITY);
+            final PropertiesLoader properties = PropertiesLoader.getInstance();
+            changeNotifier = new TodoJobChangeNotifier(conn);
+            writeExecutor = new BatchingWriteExecutor(conn,
+                    Integer.parseInt(properties.getCommonProperty(DB_WRITE_BATCH_MAX_SIZE)),
+                    Long.parseLong(properties.getCommonProperty(DB_WRITE_BATCH_WINDOW_MS)),
+                    changeNotifier);
+            readers = new ReadOnlyConnectionPool(url, READER_COUNT, STATEMENT_CACHE_CAPACITY, BUSY_TIMEOUT_MS);
+            pageCacheCapacity = Integer.parseInt(properties.getCommonProperty(DB_PAGE_CACHE_CAPACITY));
         } catch (SQLException e) {
             throw new IllegalStateException(e);
         }
     }
 
     public MapperFactoryBase() {
-        runPreInitializeScriptAsync();
+        initialized = runPreInitializeScriptAsync();
     }
 
-    private void runPreInitializeScriptAsync() {
-        CompletableFuture.runAsync(() -> {
+    private CompletableFuture<Void> runPreInitializeScriptAsync() {
+        return CompletableFuture.runAsync(() -> {
             try {
-                for (PreInitializationScript s : preInitScripts) {
-                    s.preInitialize(scriptRunner, conn);
-                }
+                schemaMigrationScript.preInitialize(scriptRunner, conn);
+                // the writes of the scripts are not notified
+                changeNotifier.start(writeExecutor);
             } catch (SQLException e) {
                 throw new IllegalStateException("Failed to run pre-initialize scripts", e);
             } finally {
-                isInitialized.set(true);
                 _doPostConstruct();
             }
-        }).exceptionally(e -> {
-            log.error("Failed to run pre-initialize scripts", e);
-            return null;
+        }, ExecutorRegistry.db()).whenComplete((ignored, e) -> {
+            // the mapper must not be used against a schema that is not fully migrated, the failure is propagated
+            if (e != null)
+                log.error("Failed to run pre-initialize scripts", e);
         });
     }
 
@@ -77,23 +113,14 @@ public class MapperFactoryBase implements MapperFactory {
 
     @Override
     public CompletableFuture<TodoJobMapper> getNewTodoJobMapperAsync() {
-        return CompletableFuture.supplyAsync(() -> {
-            while (!isInitialized())
-                ; // what till the scripts are executed
-
-            return new TodoJobMapperImpl(conn);
-        });
-    }
-
-    /**
-     * Whether the Mapper Factory is fully initialized
-     */
-    private boolean isInitialized() {
-        return isInitialized.get();
+        return initialized.thenApply(ignored -> new CachingTodoJobMapper(
+                new TodoJobMapperImpl(writer, writeExecutor, readers, changeNotifier),
+                pageCacheCapacity,
+                TodoJobMapperImpl.DEFAULT_PAGE_LIMIT));
     }
 
     private void _doPostConstruct() {
-        preInitScripts = null;
+        schemaMigrationScript = null;
         scriptRunner = null;
     }
 }
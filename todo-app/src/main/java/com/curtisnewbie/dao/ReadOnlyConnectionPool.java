@@ -0,0 +1,128 @@
+package com.curtisnewbie.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Fixed-size pool of read-only connections, each connection has its own {@link StatementCache}
+ * </p>
+ * <p>
+ * With the database in WAL mode, readers don't block the writer and the writer doesn't block readers, so queries
+ * never wait for an in-flight write
+ * </p>
+ * <p>
+ * This class is thread-safe
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public final class ReadOnlyConnectionPool {
+
+    /** Max time waiting for an idle connection */
+    private static final long BORROW_TIMEOUT_SEC = 30;
+
+    private final List<StatementCache> connections;
+    private final BlockingQueue<StatementCache> idleConnections;
+
+    /**
+     * Open the read-only connections
+     *
+     * @param url                    jdbc url of the database
+     * @param size                   number of connections
+     * @param statementCacheCapacity capacity of the statement cache of each connection
+     * @param busyTimeoutMs          busy timeout of each connection
+     */
+    public ReadOnlyConnectionPool(String url, int size, int statementCacheCapacity, int busyTimeoutMs) throws SQLException {
+        if (size <= 0)
+            throw new IllegalArgumentException("size must be greater than 0");
+
+        final SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        config.setBusyTimeout(busyTimeoutMs);
+
+        final List<StatementCache> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Connection conn = DriverManager.getConnection(url, config.toProperties());
+            list.add(new StatementCache(conn, statementCacheCapacity));
+        }
+        this.connections = Collections.unmodifiableList(list);
+        this.idleConnections = new ArrayBlockingQueue<>(size, false, list);
+    }
+
+    /**
+     * Get the number of connections
+     */
+    public int size() {
+        return connections.size();
+    }
+
+    /**
+     * Borrow a connection (in forms of its {@link StatementCache}) exclusively, it blocks until a connection is
+     * available
+     */
+    public Lease borrow() {
+        try {
+            final StatementCache sc = idleConnections.poll(BORROW_TIMEOUT_SEC, TimeUnit.SECONDS);
+            if (sc == null)
+                throw new IllegalStateException("Timeout waiting for read-only connection");
+            return new Lease(sc);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for read-only connection", e);
+        }
+    }
+
+    /**
+     * Close all connections
+     */
+    public void close() {
+        for (StatementCache sc : connections) {
+            sc.clear();
+            try {
+                sc.getConnection().close();
+            } catch (SQLException e) {
+                log.warn("Failed to close read-only connection", e);
+            }
+        }
+    }
+
+    /**
+     * Connection lent by {@link ReadOnlyConnectionPool}, closing it returns the connection to the pool
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final StatementCache statementCache;
+        private boolean released = false;
+
+        private Lease(StatementCache statementCache) {
+            this.statementCache = statementCache;
+        }
+
+        /**
+         * Get the statement cache of the borrowed connection
+         */
+        public StatementCache get() {
+            return statementCache;
+        }
+
+        @Override
+        public void close() {
+            if (released)
+                return;
+            released = true;
+            idleConnections.offer(statementCache);
+        }
+    }
+}
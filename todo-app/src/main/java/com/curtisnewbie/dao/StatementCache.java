@@ -0,0 +1,200 @@
+package com.curtisnewbie.dao;
+
+import com.curtisnewbie.util.LockedBy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Bounded cache of {@link PreparedStatement} for a {@link Connection}, keyed by the SQL text
+ * </p>
+ * <p>
+ * A statement is lent exclusively to the caller until the returned {@link CachedStatement} is closed, at which point
+ * its parameters and batch are cleared and it's put back to the cache for the next call with the same SQL. If the
+ * statement is already lent to someone else, a new one is prepared. Least recently used statements are closed when the
+ * cache is full.
+ * </p>
+ * <p>
+ * This class is thread-safe
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public final class StatementCache {
+
+    private final Connection connection;
+    private final int capacity;
+
+    /** Idle statements in access order */
+    @LockedBy(name = "this")
+    private final LinkedHashMap<String, PreparedStatement> idleStatements;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public StatementCache(Connection connection, int capacity) {
+        Objects.requireNonNull(connection);
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        this.connection = connection;
+        this.capacity = capacity;
+        this.idleStatements = new LinkedHashMap<>(capacity, 0.75f, true);
+    }
+
+    /**
+     * Get the connection that the statements are prepared on
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Get a prepared statement for the sql
+     */
+    public CachedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Get a prepared statement for the sql
+     *
+     * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}, it
+     *                          must always be the same for the same sql
+     */
+    public CachedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        PreparedStatement stmt;
+        synchronized (this) {
+            stmt = idleStatements.remove(sql);
+        }
+        if (stmt != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            stmt = connection.prepareStatement(sql, autoGeneratedKeys);
+        }
+        return new CachedStatement(sql, stmt);
+    }
+
+    /** Number of times a cached statement is reused */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** Number of times a new statement is prepared */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /** Number of idle statements in cache */
+    public synchronized int size() {
+        return idleStatements.size();
+    }
+
+    /**
+     * Close all idle statements
+     */
+    public synchronized void clear() {
+        for (Iterator<PreparedStatement> it = idleStatements.values().iterator(); it.hasNext(); ) {
+            closeQuietly(it.next());
+            it.remove();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCache{" +
+                "size=" + size() +
+                ", capacity=" + capacity +
+                ", hits=" + hits.get() +
+                ", misses=" + misses.get() +
+                '}';
+    }
+
+    /**
+     * Put the statement back to cache
+     */
+    private void release(String sql, PreparedStatement stmt) {
+        try {
+            stmt.clearParameters();
+            // a batch left by a failed write must not be executed by the next borrower
+            stmt.clearBatch();
+        } catch (SQLException e) {
+            log.warn("Failed to clear parameters or batch of statement, discarding it", e);
+            closeQuietly(stmt);
+            return;
+        }
+
+        PreparedStatement discarded = null;
+        synchronized (this) {
+            if (idleStatements.containsKey(sql)) {
+                // someone has put back the same statement already
+                discarded = stmt;
+            } else {
+                idleStatements.put(sql, stmt);
+                if (idleStatements.size() > capacity) {
+                    Iterator<Map.Entry<String, PreparedStatement>> it = idleStatements.entrySet().iterator();
+                    discarded = it.next().getValue();
+                    it.remove();
+                }
+            }
+        }
+        if (discarded != null)
+            closeQuietly(discarded);
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            log.warn("Failed to close statement", e);
+        }
+    }
+
+    /**
+     * Statement lent by {@link StatementCache}, closing it puts the statement back to the cache
+     */
+    public final class CachedStatement implements AutoCloseable {
+
+        private final String sql;
+        private final PreparedStatement stmt;
+        private boolean discarded = false;
+
+        private CachedStatement(String sql, PreparedStatement stmt) {
+            this.sql = sql;
+            this.stmt = stmt;
+        }
+
+        /**
+         * Get the statement, it must not be closed by the caller
+         */
+        public PreparedStatement get() {
+            return stmt;
+        }
+
+        /**
+         * Close the statement instead of putting it back to the cache when this is closed, e.g., when the statement is
+         * interrupted
+         */
+        public void discard() {
+            discarded = true;
+        }
+
+        @Override
+        public void close() {
+            if (discarded)
+                closeQuietly(stmt);
+            else
+                release(sql, stmt);
+        }
+    }
+}
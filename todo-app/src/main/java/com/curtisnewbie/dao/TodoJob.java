@@ -73,16 +73,18 @@ public class TodoJob {
     }
 
     @JsonGetter("actualEndDate")
-    public long actualEndDateSerializer() {
+    public Long actualEndDateSerializer() {
+        if (actualEndDate == null)
+            return null;
         return DateUtil.startTimeOf(actualEndDate);
     }
 
     @JsonSetter("actualEndDate")
     public void actualEndDateDeserializer(Long actualEndDate) {
         if (actualEndDate == null)
-            this.expectedEndDate = null;
+            this.actualEndDate = null;
         else
-            this.expectedEndDate = Instant.ofEpochMilli(actualEndDate).atZone(ZoneId.systemDefault()).toLocalDate();
+            this.actualEndDate = Instant.ofEpochMilli(actualEndDate).atZone(ZoneId.systemDefault()).toLocalDate();
     }
 
     @Override
@@ -0,0 +1,30 @@
+package com.curtisnewbie.dao;
+
+import lombok.Value;
+
+/**
+ * <p>
+ * Change of a {@link TodoJob} committed to the database
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see TodoJobChangeListener
+ */
+@Value
+public class TodoJobChange {
+
+    /** Change made by another connection (e.g., another process), the rows changed are unknown */
+    public static final TodoJobChange EXTERNAL = new TodoJobChange(Type.EXTERNAL, null);
+
+    Type type;
+    /** id of the row changed, null for {@link Type#EXTERNAL} */
+    Integer id;
+
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE,
+        /** any row may be changed by another connection */
+        EXTERNAL
+    }
+}
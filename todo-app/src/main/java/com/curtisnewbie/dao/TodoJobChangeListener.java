@@ -0,0 +1,23 @@
+package com.curtisnewbie.dao;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Listener of the changes of {@link TodoJob}
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see TodoJobMapper#addChangeListener(TodoJobChangeListener)
+ */
+@FunctionalInterface
+public interface TodoJobChangeListener {
+
+    /**
+     * Called after a transaction is committed, it's called on the writer thread, so it must return quickly, and it
+     * must not wait for any write
+     *
+     * @param changes changes committed in the transaction, in the order they are made
+     */
+    void onChanged(List<TodoJobChange> changes);
+}
@@ -0,0 +1,189 @@
+package com.curtisnewbie.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteUpdateListener;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * Notifier of the changes of {@link TodoJob} committed through the writer connection, and the changes committed by
+ * other connections
+ * </p>
+ * <p>
+ * The changes made by the writer connection are captured by the SQLite update hook, and kept until the transaction
+ * ends. {@link BatchingWriteExecutor} marks each write, drops the changes of a write that is rolled back to its
+ * savepoint, and publishes the rest after the batch is committed.
+ * </p>
+ * <p>
+ * The changes of other connections (e.g., another process) are detected by polling {@code PRAGMA data_version} on the
+ * writer connection, which only changes when another connection commits. The rows changed are unknown, so a single
+ * {@link TodoJobChange#EXTERNAL} is published.
+ * </p>
+ * <p>
+ * Except for {@link #addListener(TodoJobChangeListener)}, {@link #removeListener(TodoJobChangeListener)} and
+ * {@link #close()}, the methods must only be called on the writer thread.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public final class TodoJobChangeNotifier implements AutoCloseable {
+
+    private static final String TABLE = "todojob";
+    /** Interval of polling {@code PRAGMA data_version} */
+    private static final long POLL_INTERVAL_MS = 2_000;
+
+    private final Connection connection;
+    private final List<TodoJobChangeListener> listeners = new CopyOnWriteArrayList<>();
+    /** changes of the transaction in progress, only accessed on the writer thread */
+    private final List<TodoJobChange> pending = new ArrayList<>();
+    /** last data_version read, -1 if it's not read yet, only accessed on the writer thread */
+    private long dataVersion = -1;
+    private boolean started = false;
+    /** whether a poll is submitted to the writer thread but not yet done, a poll is skipped until then */
+    private final AtomicBoolean polling = new AtomicBoolean(false);
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread t = new Thread(r, "todo-app-db-change-poller");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * @param connection the writer connection
+     */
+    public TodoJobChangeNotifier(Connection connection) {
+        this.connection = Objects.requireNonNull(connection);
+    }
+
+    /**
+     * Start capturing the changes of the writer connection, and polling the changes of other connections through the
+     * executor
+     * <p>
+     * The writes made before this (e.g., the schema scripts) are not captured
+     * </p>
+     */
+    public synchronized void start(BatchingWriteExecutor writeExecutor) throws SQLException {
+        if (started)
+            return;
+        started = true;
+        final SQLiteUpdateListener updateListener = (type, database, table, rowId) -> {
+            if (TABLE.equals(table))
+                pending.add(new TodoJobChange(toChangeType(type), (int) rowId));
+        };
+        connection.unwrap(SQLiteConnection.class).addUpdateListener(updateListener);
+        poller.scheduleWithFixedDelay(() -> poll(writeExecutor), 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Add listener, it's called on the writer thread
+     */
+    public void addListener(TodoJobChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeListener(TodoJobChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stop polling, the changes of the writer connection are still published
+     */
+    @Override
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    /**
+     * Mark the changes captured so far, e.g., before a savepoint is set
+     */
+    int mark() {
+        return pending.size();
+    }
+
+    /**
+     * Drop the changes captured after the mark, e.g., after the savepoint is rolled back
+     */
+    void rollbackTo(int mark) {
+        pending.subList(mark, pending.size()).clear();
+    }
+
+    /**
+     * Drop all changes captured, after the transaction is rolled back
+     */
+    void discard() {
+        pending.clear();
+    }
+
+    /**
+     * Publish the changes captured, after the transaction is committed
+     */
+    void publish() {
+        if (pending.isEmpty())
+            return;
+        final List<TodoJobChange> changes = Collections.unmodifiableList(new ArrayList<>(pending));
+        pending.clear();
+        for (TodoJobChangeListener l : listeners) {
+            try {
+                l.onChanged(changes);
+            } catch (RuntimeException e) {
+                log.error("Change listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Submit a poll of {@code PRAGMA data_version} unless the previous one is not done yet, it runs on the writer
+     * thread outside any transaction
+     */
+    private void poll(BatchingWriteExecutor writeExecutor) {
+        if (!polling.compareAndSet(false, true))
+            return;
+        writeExecutor.submitOutsideTransaction(() -> {
+            checkDataVersion();
+            return null;
+        }).whenComplete((ignored, e) -> {
+            polling.set(false);
+            if (e != null)
+                log.error("Failed to poll data_version", e);
+        });
+    }
+
+    private void checkDataVersion() {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA data_version")) {
+            final long version = rs.next() ? rs.getLong(1) : -1;
+            if (dataVersion != -1 && version != dataVersion) {
+                log.info("Database is changed by another connection");
+                pending.add(TodoJobChange.EXTERNAL);
+            }
+            dataVersion = version;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static TodoJobChange.Type toChangeType(SQLiteUpdateListener.Type type) {
+        switch (type) {
+            case INSERT:
+                return TodoJobChange.Type.INSERT;
+            case UPDATE:
+                return TodoJobChange.Type.UPDATE;
+            default:
+                return TodoJobChange.Type.DELETE;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.curtisnewbie.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Immutable cursor for keyset (seek) pagination of {@link TodoJob}
+ * </p>
+ * <p>
+ * It's the sort key of the last row of a page, i.e., {@code is_done ASC, actual_end_date DESC, expected_end_date ASC}
+ * with {@code id ASC} as the tiebreak, the next page starts right after it
+ * </p>
+ * <p>
+ * Cursors are ordered in the same way as the rows are sorted, i.e., a smaller cursor comes first in the list
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public final class TodoJobCursor implements Comparable<TodoJobCursor> {
+
+    /** whether the job is done */
+    private final boolean done;
+
+    /** actual end date, nullable */
+    private final LocalDate actualEndDate;
+
+    /** expected end date */
+    private final LocalDate expectedEndDate;
+
+    /** primary key, used as the tiebreak */
+    private final int id;
+
+    /**
+     * Create cursor from the given row
+     */
+    public static TodoJobCursor of(TodoJob todoJob) {
+        Objects.requireNonNull(todoJob);
+        Objects.requireNonNull(todoJob.getId());
+        return new TodoJobCursor(todoJob.isDone(), todoJob.getActualEndDate(), todoJob.getExpectedEndDate(), todoJob.getId());
+    }
+
+    @Override
+    public int compareTo(TodoJobCursor o) {
+        int c = Boolean.compare(done, o.done);
+        if (c != 0)
+            return c;
+        // actual_end_date DESC, NULLs are the smallest in SQLite, so they come last
+        if (actualEndDate == null || o.actualEndDate == null)
+            c = actualEndDate == o.actualEndDate ? 0 : (actualEndDate == null ? 1 : -1);
+        else
+            c = o.actualEndDate.compareTo(actualEndDate);
+        if (c != 0)
+            return c;
+        c = expectedEndDate.compareTo(o.expectedEndDate);
+        if (c != 0)
+            return c;
+        return Integer.compare(id, o.id);
+    }
+}
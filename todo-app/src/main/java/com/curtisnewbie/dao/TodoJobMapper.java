@@ -1,11 +1,13 @@
 package com.curtisnewbie.dao;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.function.Predicate;
 
 /**
  * @author yongjie.zhuang
@@ -14,8 +16,96 @@ public interface TodoJobMapper extends Mapper {
 
     CompletableFuture<List<TodoJob>> findByPageAsync(String name, int page);
 
+    /**
+     * Find the page that starts right after the given cursor (keyset pagination)
+     * <p>
+     * Unlike {@link #findByPageAsync(String, int)}, the cost of the query doesn't grow with the page number
+     * </p>
+     *
+     * @param name   name to search, nullable
+     * @param cursor sort key of the last row of previous page, null for the first page
+     */
+    CompletableFuture<List<TodoJob>> findByCursorAsync(String name, TodoJobCursor cursor);
+
+    /**
+     * Same as {@link #findByPageAsync(String, int)}, but the rows are emitted as they are read from the result set
+     * <p>
+     * The query is executed when the flux is subscribed, and the rows are only read as they are requested. By default,
+     * the page is loaded as a whole and emitted afterwards.
+     * </p>
+     * <p>
+     * A streaming implementation holds a read-only connection, and the read transaction of the query, until the flux
+     * completes or is cancelled, however slow the subscriber is. The number of such fluxes at the same time may be
+     * bounded, a subscription then waits for the others to finish.
+     * </p>
+     *
+     * @param name name to search, nullable
+     * @param page page number, starts at 1
+     */
+    default Flux<TodoJob> findByPageFlux(String name, int page) {
+        return Mono.defer(() -> Mono.fromFuture(findByPageAsync(name, page))).flatMapIterable(list -> list);
+    }
+
+    /**
+     * Same as {@link #findByCursorAsync(String, TodoJobCursor)}, but the page contains at most {@code limit} rows
+     *
+     * @param name   name to search, nullable
+     * @param cursor sort key of the last row of previous page, null for the first page
+     * @param limit  max number of rows in the page, must be greater than 0
+     */
+    CompletableFuture<List<TodoJob>> findByCursorAsync(String name, TodoJobCursor cursor, int limit);
+
+    /**
+     * Load the page in background, so that a following {@link #findByCursorAsync(String, TodoJobCursor)} of the same
+     * page may return without querying the database
+     * <p>
+     * Cancelling the returned future drops the page if it's still being loaded and no one else is waiting for it. By
+     * default, nothing is loaded.
+     * </p>
+     *
+     * @param name   name to search, nullable
+     * @param cursor sort key of the last row of previous page, null for the first page
+     */
+    default CompletableFuture<Void> prefetchByCursorAsync(String name, TodoJobCursor cursor) {
+        return CompletableFuture.completedFuture(null);
+    }
+
     CompletableFuture<List<TodoJob>> findBetweenDatesAsync(String name, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Stream the records between the dates to the consumer one at a time, the records are never loaded as a whole
+     * <p>
+     * A read-only connection, and the read transaction of the query, is held until the consumer returns false or the
+     * last record is consumed, the consumer should be quick.
+     * </p>
+     *
+     * @param name     name to search, nullable
+     * @param consumer consumer of each record, it returns false to stop the streaming
+     * @return number of records consumed
+     */
+    CompletableFuture<Integer> findBetweenDatesAsync(String name, LocalDate startDate, LocalDate endDate,
+                                                     Predicate<TodoJob> consumer);
+
+    /**
+     * Stream the records between the dates, the rows are emitted as they are read from the result set
+     * <p>
+     * The query is executed when the flux is subscribed, and the rows are only read as they are requested, so a slow
+     * subscriber doesn't make the records pile up in memory. Cancelling the subscription stops the query. By default,
+     * the records are loaded as a whole and emitted afterwards.
+     * </p>
+     * <p>
+     * A streaming implementation holds a read-only connection, and the read transaction of the query, until the flux
+     * completes or is cancelled, however slow the subscriber is. The number of such fluxes at the same time may be
+     * bounded, a subscription then waits for the others to finish.
+     * </p>
+     *
+     * @param name name to search, nullable
+     */
+    default Flux<TodoJob> findBetweenDatesFlux(String name, LocalDate startDate, LocalDate endDate) {
+        return Mono.defer(() -> Mono.fromFuture(findBetweenDatesAsync(name, startDate, endDate)))
+                .flatMapIterable(list -> list);
+    }
+
     /**
      * If there is no 'earliest data', now is returned
      */
@@ -26,6 +116,18 @@ public interface TodoJobMapper extends Mapper {
      */
     CompletableFuture<LocalDate> findLatestDateAsync();
 
+    /**
+     * Add listener of the changes committed to the database, including the ones committed by other connections
+     * <p>
+     * By default, no change is notified
+     * </p>
+     */
+    default void addChangeListener(TodoJobChangeListener listener) {
+    }
+
+    default void removeChangeListener(TodoJobChangeListener listener) {
+    }
+
     /**
      * Update record
      *
@@ -46,4 +148,25 @@ public interface TodoJobMapper extends Mapper {
      * @return primary key or null
      */
     CompletableFuture<Integer> insertAsync(TodoJob todoJob);
+
+    /**
+     * Insert records in one transaction, either all of them are inserted or none of them
+     *
+     * @return primary keys in the same order as the records
+     */
+    CompletableFuture<List<Integer>> insertAllAsync(List<TodoJob> todoJobs);
+
+    /**
+     * Update records in one transaction
+     *
+     * @return whether each record is updated or not, in the same order as the records
+     */
+    CompletableFuture<List<Boolean>> updateAllAsync(List<TodoJob> todoJobs);
+
+    /**
+     * Delete records in one transaction
+     *
+     * @return whether each record is deleted or not, in the same order as the ids
+     */
+    CompletableFuture<List<Boolean>> deleteByIdsAsync(int[] ids);
 }
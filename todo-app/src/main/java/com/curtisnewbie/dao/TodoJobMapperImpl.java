@@ -1,8 +1,14 @@
 package com.curtisnewbie.dao;
 
-import com.curtisnewbie.util.DateUtil;
+import com.curtisnewbie.util.ExecutorRegistry;
+import com.curtisnewbie.util.LockedBy;
+import com.curtisnewbie.util.Pair;
 import com.curtisnewbie.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.sql.*;
 import java.time.LocalDate;
@@ -10,6 +16,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.*;
+import java.util.function.Predicate;
 
 /**
  * @author yongjie.zhuang
@@ -17,25 +24,191 @@ import java.util.concurrent.*;
 @Slf4j
 public final class TodoJobMapperImpl extends AbstractMapper implements TodoJobMapper {
 
-    private static final int DEFAULT_PAGE_LIMIT = 15;
+    static final int DEFAULT_PAGE_LIMIT = 15;
 
-    public TodoJobMapperImpl(Connection connection) {
-        super(connection);
+    private static final String SELECT_TODOJOB = "SELECT id, name, is_done, expected_end_date, actual_end_date FROM todojob ";
+
+    /*
+     * Conditions for searching by name, the full-text index (todojob_fts) is preferred, and LIKE is only used when the
+     * index is not available, or the text can't be searched by the index (see isFullTextSearchable)
+     */
+    static final String NAME_LIKE = " AND name LIKE ? ";
+    static final String NAME_MATCH = " AND id IN (SELECT rowid FROM todojob_fts WHERE todojob_fts MATCH ?) ";
+
+    static final String FIND_BY_PAGE = SELECT_TODOJOB +
+            "ORDER BY is_done ASC, actual_end_date DESC, expected_end_date ASC LIMIT ? OFFSET ?";
+    /** '%s' is where the name condition goes */
+    static final String FIND_BY_PAGE_BY_NAME = SELECT_TODOJOB + "WHERE 1 = 1 %s " +
+            "ORDER BY is_done ASC, actual_end_date DESC, expected_end_date ASC LIMIT ? OFFSET ?";
+    static final String FIND_BETWEEN_DATES = SELECT_TODOJOB +
+            "WHERE expected_end_date BETWEEN ? AND ? ORDER BY expected_end_date DESC, is_done ASC";
+    /** '%s' is where the name condition goes */
+    static final String FIND_BETWEEN_DATES_BY_NAME = SELECT_TODOJOB +
+            "WHERE (expected_end_date BETWEEN ? AND ?) %s ORDER BY expected_end_date DESC, is_done ASC";
+    static final String FIND_EARLIEST_DATE = "SELECT expected_end_date FROM todojob ORDER BY expected_end_date ASC LIMIT 1";
+    static final String FIND_LATEST_DATE = "SELECT expected_end_date FROM todojob ORDER BY expected_end_date DESC LIMIT 1";
+
+    /*
+     * Queries for keyset pagination, the rows are sorted by
+     * 'is_done ASC, actual_end_date DESC, expected_end_date ASC, id ASC' (NULLs are the smallest in SQLite, so rows
+     * without actual_end_date come last within the same is_done).
+     *
+     * The rows after a cursor are split into disjoint ranges that are queried one by one in sort order, each range is
+     * a single index seek, so that a page costs the same no matter how deep it is.
+     *
+     * The '%s' is where the optional name condition goes.
+     */
+    /** first page */
+    static final String CURSOR_FIRST_PAGE = SELECT_TODOJOB + "WHERE 1 = 1 %s " +
+            "ORDER BY is_done ASC, actual_end_date DESC, expected_end_date ASC, id ASC LIMIT ?";
+    /** same is_done, same actual_end_date (not null), after (expected_end_date, id) */
+    static final String CURSOR_SAME_ACTUAL_END_DATE = SELECT_TODOJOB +
+            "WHERE is_done = ? AND actual_end_date = ? AND (expected_end_date, id) > (?, ?) %s " +
+            "ORDER BY expected_end_date ASC, id ASC LIMIT ?";
+    /** same is_done, earlier actual_end_date */
+    static final String CURSOR_EARLIER_ACTUAL_END_DATE = SELECT_TODOJOB +
+            "WHERE is_done = ? AND actual_end_date < ? %s " +
+            "ORDER BY actual_end_date DESC, expected_end_date ASC, id ASC LIMIT ?";
+    /** same is_done, actual_end_date is null */
+    static final String CURSOR_NULL_ACTUAL_END_DATE = SELECT_TODOJOB +
+            "WHERE is_done = ? AND actual_end_date IS NULL %s " +
+            "ORDER BY expected_end_date ASC, id ASC LIMIT ?";
+    /** same is_done, actual_end_date is null, after (expected_end_date, id) */
+    static final String CURSOR_NULL_ACTUAL_END_DATE_AFTER = SELECT_TODOJOB +
+            "WHERE is_done = ? AND actual_end_date IS NULL AND (expected_end_date, id) > (?, ?) %s " +
+            "ORDER BY expected_end_date ASC, id ASC LIMIT ?";
+    /** greater is_done */
+    static final String CURSOR_GREATER_IS_DONE = SELECT_TODOJOB + "WHERE is_done > ? %s " +
+            "ORDER BY is_done ASC, actual_end_date DESC, expected_end_date ASC, id ASC LIMIT ?";
+
+    /**
+     * Scheduler where the rows of the fluxes are read, a worker runs its tasks one at a time, so the result set is never
+     * read by two threads at the same time
+     */
+    private static final Scheduler DB_SCHEDULER = Schedulers.fromExecutor(ExecutorRegistry.db(), true);
+
+    /** Max time waiting for a permit of {@link #streams} */
+    private static final long STREAM_WAIT_SEC = 30;
+
+    /** whether the full-text index for name is available */
+    private final boolean fullTextIndexed;
+    /**
+     * Permits of the queries streamed to a consumer or subscriber, such a query holds a connection (and the read
+     * transaction of its statement) for as long as the consumer takes, so one connection is always left for the others
+     */
+    private final Semaphore streams;
+    /** notifier of the changes, nullable */
+    private final TodoJobChangeNotifier changeNotifier;
+
+    /**
+     * Create mapper, the changes are not notified
+     */
+    public TodoJobMapperImpl(StatementCache writer, BatchingWriteExecutor writeExecutor, ReadOnlyConnectionPool readers) {
+        this(writer, writeExecutor, readers, null);
+    }
+
+    /**
+     * Create mapper
+     *
+     * @param changeNotifier notifier of the changes, it should be the one used by the writeExecutor, nullable
+     */
+    public TodoJobMapperImpl(StatementCache writer, BatchingWriteExecutor writeExecutor, ReadOnlyConnectionPool readers,
+                             TodoJobChangeNotifier changeNotifier) {
+        super(writer, writeExecutor, readers);
+        this.changeNotifier = changeNotifier;
+        this.streams = new Semaphore(Math.max(1, readers.size() - 1));
+        this.fullTextIndexed = isFullTextIndexCreated();
+        if (!fullTextIndexed)
+            log.info("Full-text index is not available, searching by name falls back to LIKE");
     }
 
     @Override
     public CompletableFuture<List<TodoJob>> findByPageAsync(String name, int page) {
-        return CompletableFuture.supplyAsync(() -> findByPage(name, page));
+        return CancellableQuery.supplyAsync(query -> findByPage(query, name, page));
+    }
+
+    @Override
+    public CompletableFuture<List<TodoJob>> findByCursorAsync(String name, TodoJobCursor cursor) {
+        return CancellableQuery.supplyAsync(query -> findByCursor(query, name, cursor, DEFAULT_PAGE_LIMIT));
+    }
+
+    @Override
+    public CompletableFuture<List<TodoJob>> findByCursorAsync(String name, TodoJobCursor cursor, int limit) {
+        return CancellableQuery.supplyAsync(query -> findByCursor(query, name, cursor, limit));
+    }
+
+    @Override
+    public void addChangeListener(TodoJobChangeListener listener) {
+        if (changeNotifier != null)
+            changeNotifier.addListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(TodoJobChangeListener listener) {
+        if (changeNotifier != null)
+            changeNotifier.removeListener(listener);
+    }
+
+    @Override
+    public Flux<TodoJob> findByPageFlux(String name, int page) {
+        if (page <= 0)
+            return Flux.error(new IllegalArgumentException("page must be greater than 0"));
+        final Pair<String, String> nameCond = nameCondition(name);
+        if (nameCond == null) {
+            return streamRows(FIND_BY_PAGE, stmt -> {
+                stmt.setInt(1, DEFAULT_PAGE_LIMIT);
+                stmt.setInt(2, (page - 1) * DEFAULT_PAGE_LIMIT);
+            });
+        }
+        return streamRows(String.format(FIND_BY_PAGE_BY_NAME, nameCond.getLeft()), stmt -> {
+            stmt.setString(1, nameCond.getRight());
+            stmt.setInt(2, DEFAULT_PAGE_LIMIT);
+            stmt.setInt(3, (page - 1) * DEFAULT_PAGE_LIMIT);
+        });
+    }
+
+    @Override
+    public Flux<TodoJob> findBetweenDatesFlux(String name, LocalDate startDate, LocalDate endDate) {
+        final Pair<String, String> nameCond = nameCondition(name);
+        if (nameCond == null) {
+            return streamRows(FIND_BETWEEN_DATES, stmt -> {
+                setEpochDay(stmt, 1, startDate);
+                setEpochDay(stmt, 2, endDate);
+            });
+        }
+        return streamRows(String.format(FIND_BETWEEN_DATES_BY_NAME, nameCond.getLeft()), stmt -> {
+            setEpochDay(stmt, 1, startDate);
+            setEpochDay(stmt, 2, endDate);
+            stmt.setString(3, nameCond.getRight());
+        });
     }
 
     @Override
     public CompletableFuture<List<TodoJob>> findBetweenDatesAsync(String name, LocalDate startDate, LocalDate endDate) {
-        return CompletableFuture.supplyAsync(() -> findBetweenDates(name, startDate, endDate));
+        return ExecutorRegistry.db().supplyAsync(() -> {
+            final List<TodoJob> result = new ArrayList<>();
+            findBetweenDates(name, startDate, endDate, result::add);
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> findBetweenDatesAsync(String name, LocalDate startDate, LocalDate endDate,
+                                                            Predicate<TodoJob> consumer) {
+        Objects.requireNonNull(consumer);
+        return ExecutorRegistry.db().supplyAsync(() -> {
+            acquireStream(streams);
+            try {
+                return findBetweenDates(name, startDate, endDate, consumer);
+            } finally {
+                streams.release();
+            }
+        });
     }
 
     @Override
     public CompletableFuture<LocalDate> findEarliestDateAsync() {
-        return CompletableFuture.supplyAsync(() -> {
+        return ExecutorRegistry.db().supplyAsync(() -> {
             LocalDate ld = findEarliestDate();
             if (ld == null)
                 ld = LocalDate.now();
@@ -45,7 +218,7 @@ public final class TodoJobMapperImpl extends AbstractMapper implements TodoJobMa
 
     @Override
     public CompletableFuture<LocalDate> findLatestDateAsync() {
-        return CompletableFuture.supplyAsync(() -> {
+        return ExecutorRegistry.db().supplyAsync(() -> {
             LocalDate ld = findLatestDate();
             if (ld == null)
                 ld = LocalDate.now();
@@ -55,27 +228,46 @@ public final class TodoJobMapperImpl extends AbstractMapper implements TodoJobMa
 
     @Override
     public CompletableFuture<Boolean> updateByIdAsync(TodoJob todoJob) {
-        return CompletableFuture.supplyAsync(() -> this.updateById(todoJob) > 0);
+        return writeExecutor.submit(() -> this.updateById(todoJob) > 0);
     }
 
     @Override
     public CompletableFuture<Boolean> deleteByIdAsync(int id) {
-        return CompletableFuture.supplyAsync(() -> deleteById(id) > 0);
+        return writeExecutor.submit(() -> deleteById(id) > 0);
     }
 
     @Override
     public CompletableFuture<Integer> insertAsync(TodoJob todoJob) {
-        return CompletableFuture.supplyAsync(() -> insert(todoJob));
+        return writeExecutor.submit(() -> insert(todoJob));
+    }
+
+    @Override
+    public CompletableFuture<List<Integer>> insertAllAsync(List<TodoJob> todoJobs) {
+        Objects.requireNonNull(todoJobs);
+        return writeExecutor.submit(() -> insertAll(todoJobs));
+    }
+
+    @Override
+    public CompletableFuture<List<Boolean>> updateAllAsync(List<TodoJob> todoJobs) {
+        Objects.requireNonNull(todoJobs);
+        return writeExecutor.submit(() -> updateAll(todoJobs));
+    }
+
+    @Override
+    public CompletableFuture<List<Boolean>> deleteByIdsAsync(int[] ids) {
+        Objects.requireNonNull(ids);
+        return writeExecutor.submit(() -> deleteByIds(ids));
     }
 
     // ------------------------------ helper methods -------------------
 
     private Integer insert(TodoJob todoJob) {
-        try (PreparedStatement stmt = connection.prepareStatement(
+        try (StatementCache.CachedStatement cs = writer.prepare(
                 "INSERT INTO todojob (name, is_done, expected_end_date) VALUES (?,?,?)", Statement.RETURN_GENERATED_KEYS)) {
+            final PreparedStatement stmt = cs.get();
             stmt.setString(1, todoJob.getName());
             stmt.setBoolean(2, todoJob.isDone());
-            stmt.setDate(3, new java.sql.Date(DateUtil.startTimeOf(todoJob.getExpectedEndDate())));
+            setEpochDay(stmt, 3, todoJob.getExpectedEndDate());
             int c = stmt.executeUpdate();
             if (c > 0) {
                 try (ResultSet rs = stmt.getGeneratedKeys()) {
@@ -90,8 +282,102 @@ public final class TodoJobMapperImpl extends AbstractMapper implements TodoJobMa
         }
     }
 
+    /**
+     * Insert the records using a single batch
+     * <p>
+     * SQLite only returns the key of the last inserted row for a batch, but the batch runs on the single writer
+     * thread within a transaction, and the table is AUTOINCREMENT, so the keys are consecutive and are derived
+     * from the last one
+     * </p>
+     */
+    private List<Integer> insertAll(List<TodoJob> todoJobs) {
+        if (todoJobs.isEmpty())
+            return new ArrayList<>();
+        requireValid(todoJobs, false);
+
+        try (StatementCache.CachedStatement cs = writer.prepare(
+                "INSERT INTO todojob (name, is_done, expected_end_date, actual_end_date) VALUES (?,?,?,?)")) {
+            final PreparedStatement stmt = cs.get();
+            for (TodoJob todoJob : todoJobs) {
+                stmt.setString(1, todoJob.getName());
+                stmt.setBoolean(2, todoJob.isDone());
+                setEpochDay(stmt, 3, todoJob.getExpectedEndDate());
+                setEpochDay(stmt, 4, todoJob.getActualEndDate());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+
+        try (StatementCache.CachedStatement cs = writer.prepare("SELECT last_insert_rowid()");
+             ResultSet rs = cs.get().executeQuery()) {
+            rs.next();
+            final int lastId = rs.getInt(1);
+            final List<Integer> ids = new ArrayList<>(todoJobs.size());
+            for (int id = lastId - todoJobs.size() + 1; id <= lastId; id++)
+                ids.add(id);
+            return ids;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<Boolean> updateAll(List<TodoJob> todoJobs) {
+        requireValid(todoJobs, true);
+        try (StatementCache.CachedStatement cs = writer.prepare(
+                "UPDATE todojob SET name = ?, is_done = ?, expected_end_date = ?, actual_end_date = ? WHERE id = ?")) {
+            final PreparedStatement stmt = cs.get();
+            for (TodoJob todoJob : todoJobs) {
+                stmt.setString(1, todoJob.getName());
+                stmt.setBoolean(2, todoJob.isDone());
+                setEpochDay(stmt, 3, todoJob.getExpectedEndDate());
+                setEpochDay(stmt, 4, todoJob.getActualEndDate());
+                stmt.setInt(5, todoJob.getId());
+                stmt.addBatch();
+            }
+            return toOutcomes(todoJobs.isEmpty() ? new int[0] : stmt.executeBatch());
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<Boolean> deleteByIds(int[] ids) {
+        try (StatementCache.CachedStatement cs = writer.prepare("DELETE FROM todojob WHERE id = ?")) {
+            final PreparedStatement stmt = cs.get();
+            for (int id : ids) {
+                stmt.setInt(1, id);
+                stmt.addBatch();
+            }
+            return toOutcomes(ids.length == 0 ? new int[0] : stmt.executeBatch());
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Check all records before any of them is added to a batch, so that a batch is never left half-built
+     */
+    private static void requireValid(List<TodoJob> todoJobs, boolean requireId) {
+        for (TodoJob todoJob : todoJobs) {
+            Objects.requireNonNull(todoJob);
+            Objects.requireNonNull(todoJob.getName(), "name");
+            Objects.requireNonNull(todoJob.getExpectedEndDate(), "expectedEndDate");
+            if (requireId)
+                Objects.requireNonNull(todoJob.getId(), "id");
+        }
+    }
+
+    private static List<Boolean> toOutcomes(int[] updateCounts) {
+        final List<Boolean> outcomes = new ArrayList<>(updateCounts.length);
+        for (int c : updateCounts)
+            outcomes.add(c > 0);
+        return outcomes;
+    }
+
     private int deleteById(int id) {
-        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM todojob WHERE id = ?")) {
+        try (StatementCache.CachedStatement cs = writer.prepare("DELETE FROM todojob WHERE id = ?")) {
+            final PreparedStatement stmt = cs.get();
             stmt.setInt(1, id);
             return stmt.executeUpdate();
         } catch (SQLException e) {
@@ -102,13 +388,13 @@ public final class TodoJobMapperImpl extends AbstractMapper implements TodoJobMa
     private int updateById(TodoJob todoJob) {
         Objects.requireNonNull(todoJob);
         Objects.requireNonNull(todoJob.getId());
-        try (PreparedStatement stmt = connection.prepareStatement(
+        try (StatementCache.CachedStatement cs = writer.prepare(
                 "UPDATE todojob SET name = ?, is_done = ?, expected_end_date = ?, actual_end_date = ? WHERE id = ?")) {
+            final PreparedStatement stmt = cs.get();
             stmt.setString(1, todoJob.getName());
             stmt.setBoolean(2, todoJob.isDone());
-            stmt.setDate(3, new java.sql.Date(DateUtil.startTimeOf(todoJob.getExpectedEndDate())));
-            stmt.setDate(4, todoJob.getActualEndDate() != null ?
-                    new java.sql.Date(DateUtil.startTimeOf(todoJob.getActualEndDate())) : null);
+            setEpochDay(stmt, 3, todoJob.getExpectedEndDate());
+            setEpochDay(stmt, 4, todoJob.getActualEndDate());
             stmt.setInt(5, todoJob.getId());
             int res = stmt.executeUpdate();
             return res;
@@ -118,22 +404,19 @@ public final class TodoJobMapperImpl extends AbstractMapper implements TodoJobMa
     }
 
     private LocalDate findLatestDate() {
-        try (Statement stmt = connection.createStatement();) {
-            ResultSet rs = stmt.executeQuery("SELECT expected_end_date FROM todojob ORDER BY expected_end_date DESC LIMIT 1");
-            if (rs.next()) {
-                return DateUtil.localDateOf(rs.getDate(1).getTime());
-            }
-            return null;
-        } catch (SQLException e) {
-            throw new IllegalStateException(e);
-        }
+        return findOneDate(FIND_LATEST_DATE);
     }
 
     private LocalDate findEarliestDate() {
-        try (Statement stmt = connection.createStatement();) {
-            ResultSet rs = stmt.executeQuery("SELECT expected_end_date FROM todojob ORDER BY expected_end_date ASC LIMIT 1");
+        return findOneDate(FIND_EARLIEST_DATE);
+    }
+
+    private LocalDate findOneDate(String sql) {
+        try (ReadOnlyConnectionPool.Lease lease = readers.borrow();
+             StatementCache.CachedStatement cs = lease.get().prepare(sql);
+             ResultSet rs = cs.get().executeQuery()) {
             if (rs.next()) {
-                return DateUtil.localDateOf(rs.getDate(1).getTime());
+                return LocalDate.ofEpochDay(rs.getLong(1));
             }
             return null;
         } catch (SQLException e) {
@@ -142,19 +425,13 @@ public final class TodoJobMapperImpl extends AbstractMapper implements TodoJobMa
     }
 
     private TodoJob findById(int id) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT id, name, is_done, expected_end_date, actual_end_date FROM todojob WHERE id = ?"
-        );) {
+        try (ReadOnlyConnectionPool.Lease lease = readers.borrow();
+             StatementCache.CachedStatement cs = lease.get().prepare(SELECT_TODOJOB + "WHERE id = ?")) {
+            final PreparedStatement stmt = cs.get();
             stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                TodoJob job = new TodoJob();
-                job.setId(rs.getInt(1));
-                job.setName(rs.getString(2));
-                job.setDone(rs.getBoolean(3));
-                job.setExpectedEndDate(DateUtil.localDateOf(rs.getDate(4).getTime()));
-                job.setActualEndDate(rs.getDate(5) != null ? DateUtil.localDateOf(rs.getDate(5).getTime()) : null);
-                return job;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next())
+                    return toTodoJob(rs);
             }
             return null;
         } catch (SQLException e) {
@@ -162,145 +439,446 @@ public final class TodoJobMapperImpl extends AbstractMapper implements TodoJobMa
         }
     }
 
-    private List<TodoJob> findByPage(int page, int limit) {
+    private List<TodoJob> findByPage(CancellableQuery<?> query, int page, int limit) {
         if (limit <= 0)
             throw new IllegalArgumentException("limit must be greater than 0");
         if (page <= 0)
             throw new IllegalArgumentException("page must be greater than 0");
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT id, name, is_done, expected_end_date, actual_end_date FROM todojob " +
-                        "ORDER BY is_done ASC, actual_end_date DESC, expected_end_date ASC LIMIT ? OFFSET ?");) {
+        try (ReadOnlyConnectionPool.Lease lease = readers.borrow();
+             StatementCache.CachedStatement cs = lease.get().prepare(FIND_BY_PAGE)) {
+            final PreparedStatement stmt = cs.get();
             stmt.setInt(1, limit);
             stmt.setInt(2, (page - 1) * limit);
-            ResultSet rs = stmt.executeQuery();
-            List<TodoJob> result = new ArrayList<>();
-            while (rs.next()) {
-                TodoJob job = new TodoJob();
-                job.setId(rs.getInt(1));
-                job.setName(rs.getString(2));
-                job.setDone(rs.getBoolean(3));
-                job.setExpectedEndDate(DateUtil.localDateOf(rs.getDate(4).getTime()));
-                job.setActualEndDate(rs.getDate(5) != null ? DateUtil.localDateOf(rs.getDate(5).getTime()) : null);
-                result.add(job);
-            }
-            return result;
+            return queryList(cs, query);
         } catch (SQLException e) {
             throw new IllegalStateException(e);
         }
     }
 
-    private List<TodoJob> findByPage(int page) {
-        return findByPage(page, DEFAULT_PAGE_LIMIT);
-    }
-
-    private List<TodoJob> findByPage(String name, int page) {
-        return findByPage(name, page, DEFAULT_PAGE_LIMIT);
+    private List<TodoJob> findByPage(CancellableQuery<?> query, String name, int page) {
+        return findByPage(query, name, page, DEFAULT_PAGE_LIMIT);
     }
 
-    private List<TodoJob> findByPage(String name, int page, int limit) {
+    private List<TodoJob> findByPage(CancellableQuery<?> query, String name, int page, int limit) {
         if (StrUtil.isEmpty(name))
-            return findByPage(page);
+            return findByPage(query, page, limit);
 
         if (limit <= 0)
             throw new IllegalArgumentException("limit must be greater than 0");
         if (page <= 0)
             throw new IllegalArgumentException("page must be greater than 0");
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT id, name, is_done, expected_end_date, actual_end_date FROM todojob " +
-                        "WHERE name LIKE ? " +
-                        "ORDER BY is_done ASC, actual_end_date DESC, expected_end_date ASC LIMIT ? OFFSET ?");) {
-
-            stmt.setString(1, "%" + name + "%");
+        final Pair<String, String> nameCond = nameCondition(name);
+        try (ReadOnlyConnectionPool.Lease lease = readers.borrow();
+             StatementCache.CachedStatement cs = lease.get().prepare(String.format(FIND_BY_PAGE_BY_NAME, nameCond.getLeft()))) {
+            final PreparedStatement stmt = cs.get();
+            stmt.setString(1, nameCond.getRight());
             stmt.setInt(2, limit);
             stmt.setInt(3, (page - 1) * limit);
-            ResultSet rs = stmt.executeQuery();
-            List<TodoJob> result = new ArrayList<>();
-            while (rs.next()) {
-                TodoJob job = new TodoJob();
-                job.setId(rs.getInt(1));
-                job.setName(rs.getString(2));
-                job.setDone(rs.getBoolean(3));
-                job.setExpectedEndDate(DateUtil.localDateOf(rs.getDate(4).getTime()));
-                job.setActualEndDate(rs.getDate(5) != null ? DateUtil.localDateOf(rs.getDate(5).getTime()) : null);
-                result.add(job);
+            return queryList(cs, query);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<TodoJob> findByCursor(CancellableQuery<?> query, String name, TodoJobCursor cursor, int limit) {
+        if (limit <= 0)
+            throw new IllegalArgumentException("limit must be greater than 0");
+
+        final Pair<String, String> nameCond = nameCondition(name);
+        final List<TodoJob> result = new ArrayList<>(limit);
+        try (ReadOnlyConnectionPool.Lease lease = readers.borrow()) {
+            final StatementCache reader = lease.get();
+            // the ranges are queried in one read transaction, so that the page is read from a single snapshot
+            beginReadTransaction(reader.getConnection());
+            try {
+                queryRanges(query, reader, nameCond, cursor, result, limit);
+            } finally {
+                endReadTransaction(reader.getConnection());
             }
-            return result;
+        }
+        return result;
+    }
+
+    /**
+     * Query the ranges after the cursor one by one, until the result is full
+     */
+    private void queryRanges(CancellableQuery<?> query, StatementCache reader, Pair<String, String> nameCond,
+                             TodoJobCursor cursor, List<TodoJob> result, int limit) {
+        if (cursor == null) {
+            queryRange(query, reader, CURSOR_FIRST_PAGE, nameCond, result, limit);
+            return;
+        }
+
+        final int isDone = cursor.isDone() ? 1 : 0;
+        final long expectedEndDate = cursor.getExpectedEndDate().toEpochDay();
+        if (cursor.getActualEndDate() != null) {
+            final long actualEndDate = cursor.getActualEndDate().toEpochDay();
+            queryRange(query, reader, CURSOR_SAME_ACTUAL_END_DATE, nameCond, result, limit, isDone, actualEndDate, expectedEndDate, cursor.getId());
+            queryRange(query, reader, CURSOR_EARLIER_ACTUAL_END_DATE, nameCond, result, limit, isDone, actualEndDate);
+            queryRange(query, reader, CURSOR_NULL_ACTUAL_END_DATE, nameCond, result, limit, isDone);
+        } else {
+            queryRange(query, reader, CURSOR_NULL_ACTUAL_END_DATE_AFTER, nameCond, result, limit, isDone, expectedEndDate, cursor.getId());
+        }
+        queryRange(query, reader, CURSOR_GREATER_IS_DONE, nameCond, result, limit, isDone);
+    }
+
+    /**
+     * Begin a (deferred) read transaction, the snapshot is taken by the first query
+     */
+    private static void beginReadTransaction(Connection conn) {
+        try {
+            conn.setAutoCommit(false);
         } catch (SQLException e) {
             throw new IllegalStateException(e);
         }
+    }
 
+    /**
+     * End the read transaction, the connection is back in auto-commit mode
+     * <p>
+     * SQLite may have rolled back the transaction already (e.g., a statement is interrupted), in which case ending it
+     * fails, but the connection is still back in auto-commit mode
+     * </p>
+     */
+    private static void endReadTransaction(Connection conn) {
+        try {
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            log.warn("Failed to end read transaction", e);
+        }
+    }
+
+    /**
+     * Query one of the ranges for keyset pagination, and append the rows to the result until it's full
+     *
+     * @param query    query that the range belongs to
+     * @param reader   statement cache of the read-only connection
+     * @param sql      sql with '%s' for the optional name condition
+     * @param nameCond name condition and its parameter, nullable
+     * @param result   result
+     * @param limit    max size of the result
+     * @param params   parameters before the name condition
+     */
+    private void queryRange(CancellableQuery<?> query, StatementCache reader, String sql, Pair<String, String> nameCond,
+                            List<TodoJob> result, int limit, Object... params) {
+        final int remaining = limit - result.size();
+        if (remaining <= 0)
+            return;
+
+        try (StatementCache.CachedStatement cs = reader.prepare(String.format(sql, nameCond != null ? nameCond.getLeft() : ""))) {
+            final PreparedStatement stmt = cs.get();
+            int i = 1;
+            for (Object p : params)
+                stmt.setObject(i++, p);
+            if (nameCond != null)
+                stmt.setString(i++, nameCond.getRight());
+            stmt.setInt(i, remaining);
+            result.addAll(queryList(cs, query));
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     private List<TodoJob> findAll() {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT id, name, is_done, expected_end_date, actual_end_date FROM todojob " +
-                        "ORDER BY expected_end_date DESC, is_done ASC");) {
-            ResultSet rs = stmt.executeQuery();
-            List<TodoJob> result = new ArrayList<>();
-            while (rs.next()) {
-                TodoJob job = new TodoJob();
-                job.setId(rs.getInt(1));
-                job.setName(rs.getString(2));
-                job.setDone(rs.getBoolean(3));
-                job.setExpectedEndDate(DateUtil.localDateOf(rs.getDate(4).getTime()));
-                job.setActualEndDate(rs.getDate(5) != null ? DateUtil.localDateOf(rs.getDate(5).getTime()) : null);
-                result.add(job);
-            }
-            return result;
+        try (ReadOnlyConnectionPool.Lease lease = readers.borrow();
+             StatementCache.CachedStatement cs = lease.get().prepare(SELECT_TODOJOB +
+                "ORDER BY expected_end_date DESC, is_done ASC")) {
+            return queryList(cs.get());
         } catch (SQLException e) {
             throw new IllegalStateException(e);
         }
     }
 
-    private List<TodoJob> findBetweenDates(LocalDate startDate, LocalDate endDate) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT id, name, is_done, expected_end_date, actual_end_date FROM todojob " +
-                        "WHERE expected_end_date BETWEEN ? AND ? ORDER BY expected_end_date DESC, is_done ASC");) {
-            stmt.setDate(1, new java.sql.Date(DateUtil.startTimeOf(startDate)));
-            stmt.setDate(2, new java.sql.Date(DateUtil.startTimeOf(endDate)));
-            ResultSet rs = stmt.executeQuery();
-            List<TodoJob> result = new ArrayList<>();
-            while (rs.next()) {
-                TodoJob job = new TodoJob();
-                job.setId(rs.getInt(1));
-                job.setName(rs.getString(2));
-                job.setDone(rs.getBoolean(3));
-                job.setExpectedEndDate(DateUtil.localDateOf(rs.getDate(4).getTime()));
-                job.setActualEndDate(rs.getDate(5) != null ? DateUtil.localDateOf(rs.getDate(5).getTime()) : null);
-                result.add(job);
-            }
-            return result;
+    private int findBetweenDates(LocalDate startDate, LocalDate endDate, Predicate<TodoJob> consumer) {
+        try (ReadOnlyConnectionPool.Lease lease = readers.borrow();
+             StatementCache.CachedStatement cs = lease.get().prepare(FIND_BETWEEN_DATES)) {
+            final PreparedStatement stmt = cs.get();
+            setEpochDay(stmt, 1, startDate);
+            setEpochDay(stmt, 2, endDate);
+            return queryEach(stmt, consumer);
         } catch (SQLException e) {
             throw new IllegalStateException(e);
         }
     }
 
-    private List<TodoJob> findBetweenDates(String name, LocalDate startDate, LocalDate endDate) {
+    private int findBetweenDates(String name, LocalDate startDate, LocalDate endDate, Predicate<TodoJob> consumer) {
         if (StrUtil.isEmpty(name))
-            return findBetweenDates(startDate, endDate);
-
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT id, name, is_done, expected_end_date, actual_end_date FROM todojob " +
-                        " WHERE (expected_end_date BETWEEN ? AND ?) AND name LIKE ? " +
-                        " ORDER BY expected_end_date DESC, is_done ASC");) {
-            stmt.setDate(1, new java.sql.Date(DateUtil.startTimeOf(startDate)));
-            stmt.setDate(2, new java.sql.Date(DateUtil.startTimeOf(endDate)));
-            stmt.setString(3, "%" + name + "%");
-            ResultSet rs = stmt.executeQuery();
+            return findBetweenDates(startDate, endDate, consumer);
+
+        final Pair<String, String> nameCond = nameCondition(name);
+        try (ReadOnlyConnectionPool.Lease lease = readers.borrow();
+             StatementCache.CachedStatement cs = lease.get().prepare(String.format(FIND_BETWEEN_DATES_BY_NAME, nameCond.getLeft()))) {
+            final PreparedStatement stmt = cs.get();
+            setEpochDay(stmt, 1, startDate);
+            setEpochDay(stmt, 2, endDate);
+            stmt.setString(3, nameCond.getRight());
+            return queryEach(stmt, consumer);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Build the condition for searching by name
+     *
+     * @return pair of the condition (either {@link #NAME_MATCH} or {@link #NAME_LIKE}) and its parameter, or null if
+     * the name is empty
+     */
+    private Pair<String, String> nameCondition(String name) {
+        if (StrUtil.isEmpty(name))
+            return null;
+        if (fullTextIndexed && isFullTextSearchable(name))
+            return new Pair<>(NAME_MATCH, toFullTextQuery(name));
+        return new Pair<>(NAME_LIKE, "%" + name + "%");
+    }
+
+    private boolean isFullTextIndexCreated() {
+        try (ReadOnlyConnectionPool.Lease lease = readers.borrow();
+             StatementCache.CachedStatement cs = lease.get().prepare(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'todojob_fts'");
+             ResultSet rs = cs.get().executeQuery()) {
+            return rs.next();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Whether the text can be searched by the full-text index
+     * <p>
+     * The default tokenizer (unicode61) doesn't segment CJK text, a sentence without spaces is a single token, so
+     * such text is still searched using LIKE to find the words in the middle of a sentence
+     * </p>
+     */
+    static boolean isFullTextSearchable(String text) {
+        boolean hasLetterOrDigit = false;
+        for (int i = 0; i < text.length(); ) {
+            final int cp = text.codePointAt(i);
+            final Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+            if (script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                    || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL)
+                return false;
+            if (Character.isLetterOrDigit(cp))
+                hasLetterOrDigit = true;
+            i += Character.charCount(cp);
+        }
+        return hasLetterOrDigit;
+    }
+
+    /**
+     * Convert the searched text to a FTS5 query, each word is quoted and matched by prefix, e.g., {@code buy milk} is
+     * converted to {@code "buy"* "milk"*}
+     */
+    static String toFullTextQuery(String text) {
+        final StringBuilder sb = new StringBuilder();
+        for (String word : text.trim().split("\\s+")) {
+            if (!word.codePoints().anyMatch(Character::isLetterOrDigit))
+                continue;
+            if (sb.length() > 0)
+                sb.append(' ');
+            sb.append('"').append(word.replace("\"", "\"\"")).append("\"*");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Execute the query and map all rows to TodoJob, the statement is interrupted if the query is cancelled
+     *
+     * @throws CancellationException if the query is cancelled
+     */
+    private static List<TodoJob> queryList(StatementCache.CachedStatement cs, CancellableQuery<?> query) throws SQLException {
+        query.begin(cs.get());
+        try {
+            return queryList(cs.get());
+        } catch (SQLException e) {
+            if (!query.isCancelled())
+                throw e;
+            // the interrupted statement is finalized by the driver, it can't be reused
+            cs.discard();
+            throw new CancellationException();
+        } finally {
+            query.end();
+        }
+    }
+
+    /**
+     * Execute the query and map all rows to TodoJob
+     */
+    private static List<TodoJob> queryList(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
             List<TodoJob> result = new ArrayList<>();
+            while (rs.next())
+                result.add(toTodoJob(rs));
+            return result;
+        }
+    }
+
+    /**
+     * Stream the rows of the query, a row is only read from the result set when it's requested
+     * <p>
+     * The query is executed in {@link #DB_SCHEDULER} when the flux is subscribed, the connection and a permit of
+     * {@link #streams} are held until the flux is completed or cancelled.
+     * </p>
+     *
+     * @param sql    sql
+     * @param params binder of the parameters
+     */
+    private Flux<TodoJob> streamRows(String sql, ParamBinder params) {
+        return Flux.using(() -> RowCursor.open(readers, streams, sql, params),
+                cursor -> Flux.generate(cursor::next),
+                RowCursor::close)
+                .subscribeOn(DB_SCHEDULER);
+    }
+
+    /**
+     * Acquire a permit for a streamed query, it blocks until a permit is available
+     */
+    private static void acquireStream(Semaphore streams) {
+        try {
+            if (!streams.tryAcquire(STREAM_WAIT_SEC, TimeUnit.SECONDS))
+                throw new IllegalStateException("Timeout waiting for other streamed queries to finish");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for other streamed queries to finish", e);
+        }
+    }
+
+    /**
+     * Pass each row to the consumer as the result set is iterated, until the consumer returns false
+     *
+     * @return number of rows consumed
+     */
+    private static int queryEach(PreparedStatement stmt, Predicate<TodoJob> consumer) throws SQLException {
+        int count = 0;
+        try (ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                TodoJob job = new TodoJob();
-                job.setId(rs.getInt(1));
-                job.setName(rs.getString(2));
-                job.setDone(rs.getBoolean(3));
-                job.setExpectedEndDate(DateUtil.localDateOf(rs.getDate(4).getTime()));
-                job.setActualEndDate(rs.getDate(5) != null ? DateUtil.localDateOf(rs.getDate(5).getTime()) : null);
-                result.add(job);
+                count++;
+                if (!consumer.test(toTodoJob(rs)))
+                    break;
             }
-            return result;
-        } catch (SQLException e) {
-            throw new IllegalStateException(e);
         }
+        return count;
+    }
+
+    /**
+     * Bind the date as epoch day, null is bound as NULL
+     */
+    private static void setEpochDay(PreparedStatement stmt, int i, LocalDate date) throws SQLException {
+        if (date == null)
+            stmt.setNull(i, Types.INTEGER);
+        else
+            stmt.setLong(i, date.toEpochDay());
+    }
+
+    /**
+     * Map current row to TodoJob, the columns are 'id, name, is_done, expected_end_date, actual_end_date'
+     */
+    private static TodoJob toTodoJob(ResultSet rs) throws SQLException {
+        TodoJob job = new TodoJob();
+        job.setId(rs.getInt(1));
+        job.setName(rs.getString(2));
+        job.setDone(rs.getBoolean(3));
+        job.setExpectedEndDate(LocalDate.ofEpochDay(rs.getLong(4)));
+        final long actualEndDate = rs.getLong(5);
+        job.setActualEndDate(rs.wasNull() ? null : LocalDate.ofEpochDay(actualEndDate));
+        return job;
+    }
+
+
+    /**
+     * Binder of the parameters of a statement
+     */
+    @FunctionalInterface
+    private interface ParamBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
     }
 
+    /**
+     * Result set being streamed, along with the connection and statement it's read from
+     * <p>
+     * The cursor may be closed by a cancellation while a row is being read, so reading and closing are synchronized
+     * </p>
+     */
+    private static final class RowCursor {
+
+        private final Semaphore streams;
+        private final ReadOnlyConnectionPool.Lease lease;
+        private final StatementCache.CachedStatement cs;
+        private final ResultSet rs;
+        @LockedBy(name = "this")
+        private boolean closed = false;
+
+        private RowCursor(Semaphore streams, ReadOnlyConnectionPool.Lease lease, StatementCache.CachedStatement cs,
+                          ResultSet rs) {
+            this.streams = streams;
+            this.lease = lease;
+            this.cs = cs;
+            this.rs = rs;
+        }
+
+        /**
+         * Acquire a permit of the streams, borrow a connection and execute the query
+         */
+        static RowCursor open(ReadOnlyConnectionPool readers, Semaphore streams, String sql, ParamBinder params) {
+            acquireStream(streams);
+            final ReadOnlyConnectionPool.Lease lease;
+            try {
+                lease = readers.borrow();
+            } catch (RuntimeException e) {
+                streams.release();
+                throw e;
+            }
+            StatementCache.CachedStatement cs = null;
+            try {
+                cs = lease.get().prepare(sql);
+                params.bind(cs.get());
+                return new RowCursor(streams, lease, cs, cs.get().executeQuery());
+            } catch (SQLException | RuntimeException e) {
+                if (cs != null)
+                    cs.close();
+                lease.close();
+                streams.release();
+                if (e instanceof SQLException)
+                    throw new IllegalStateException(e);
+                throw (RuntimeException) e;
+            }
+        }
+
+        /**
+         * Emit the next row, or complete the sink if there is none
+         */
+        synchronized void next(SynchronousSink<TodoJob> sink) {
+            if (closed) {
+                sink.complete();
+                return;
+            }
+            try {
+                if (rs.next())
+                    sink.next(toTodoJob(rs));
+                else
+                    sink.complete();
+            } catch (SQLException e) {
+                sink.error(new IllegalStateException(e));
+            }
+        }
+
+        /**
+         * Close the result set, and release the statement, the connection and the permit
+         */
+        synchronized void close() {
+            if (closed)
+                return;
+            closed = true;
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                log.warn("Failed to close result set", e);
+                cs.discard();
+            } finally {
+                cs.close();
+                lease.close();
+                streams.release();
+            }
+        }
+    }
 }
@@ -2,7 +2,9 @@ package com.curtisnewbie.dao.script;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 /**
  * <p>
@@ -24,4 +26,23 @@ public abstract class AbstractScript implements PreInitializationScript {
         }
     }
 
+    /**
+     * Get schema version stored in {@code PRAGMA user_version}, it's 0 for a database that is never versioned
+     */
+    protected int getUserVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Set schema version stored in {@code PRAGMA user_version}
+     */
+    protected void setUserVersion(Connection conn, int version) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + version);
+        }
+    }
+
 }
@@ -0,0 +1,55 @@
+package com.curtisnewbie.dao.script;
+
+import com.curtisnewbie.io.IOHandler;
+import com.curtisnewbie.io.IOHandlerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Script that creates the FTS5 full-text index for {@code todojob.name}, and backfills it with existing rows
+ * <p>
+ * If the SQLite build doesn't have FTS5, the index is not created, and {@link com.curtisnewbie.dao.TodoJobMapperImpl}
+ * falls back to {@code LIKE}
+ * </p>
+ * <p>
+ * Schema version 2
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public class CreateFullTextIndexScript extends VersionedScript {
+
+    private static final String CREATE_FTS_SCRIPT = "create_fts.sql";
+    private final IOHandler ioHandler = IOHandlerFactory.getIOHandler();
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    protected void migrate(ScriptRunner runner, Connection conn) throws SQLException {
+        if (!isFts5Available(conn)) {
+            log.warn("FTS5 is not available in current SQLite build, full-text index is not created");
+            return;
+        }
+        try {
+            runner.runScript(conn, ioHandler.readResourceAsString(CREATE_FTS_SCRIPT));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to run script: " + CREATE_FTS_SCRIPT, e);
+        }
+    }
+
+    private boolean isFts5Available(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT sqlite_compileoption_used('ENABLE_FTS5')")) {
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.curtisnewbie.dao.script;
+
+import com.curtisnewbie.io.IOHandler;
+import com.curtisnewbie.io.IOHandlerFactory;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Script that creates the indexes for the queries in {@link com.curtisnewbie.dao.TodoJobMapperImpl}
+ * <p>
+ * Schema version 1
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+public class CreateIndexScript extends VersionedScript {
+
+    private static final String CREATE_INDEX_SCRIPT = "create_index.sql";
+    private final IOHandler ioHandler = IOHandlerFactory.getIOHandler();
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    protected void migrate(ScriptRunner runner, Connection conn) throws SQLException {
+        try {
+            runner.runScript(conn, ioHandler.readResourceAsString(CREATE_INDEX_SCRIPT));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to run script: " + CREATE_INDEX_SCRIPT, e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.curtisnewbie.dao.script;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.*;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Script that converts {@code expected_end_date} and {@code actual_end_date} from milliseconds (the start of the day
+ * in the system's timezone) to epoch days, so that the dates no longer depend on the timezone
+ * <p>
+ * The conversion is done in Java with the system's timezone, as it's the one used when the values were written. The
+ * declared column type (DATE, i.e., NUMERIC affinity) is kept, the values are stored as INTEGER either way. Values
+ * that are already in epoch days are left untouched.
+ * </p>
+ * <p>
+ * Schema version 3
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public class MigrateToEpochDayScript extends VersionedScript {
+
+    /**
+     * Values greater than this are treated as milliseconds, the epoch day of year 9999 is less than 3,000,000, while
+     * the milliseconds of any day after 02/JAN/1970 is greater than 86,400,000
+     */
+    private static final long MAX_EPOCH_DAY = 10_000_000L;
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @Override
+    protected void migrate(ScriptRunner runner, Connection conn) throws SQLException {
+        final ZoneId zone = ZoneId.systemDefault();
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery("SELECT id, expected_end_date, actual_end_date FROM todojob");
+             PreparedStatement update = conn.prepareStatement(
+                     "UPDATE todojob SET expected_end_date = ?, actual_end_date = ? WHERE id = ?")) {
+            int count = 0;
+            while (rs.next()) {
+                final long expected = rs.getLong(2);
+                final long actual = rs.getLong(3);
+                final boolean actualIsNull = rs.wasNull();
+                if (Math.abs(expected) <= MAX_EPOCH_DAY && (actualIsNull || Math.abs(actual) <= MAX_EPOCH_DAY))
+                    continue; // already in epoch days
+
+                update.setLong(1, toEpochDay(expected, zone));
+                if (actualIsNull)
+                    update.setNull(2, Types.INTEGER);
+                else
+                    update.setLong(2, toEpochDay(actual, zone));
+                update.setInt(3, rs.getInt(1));
+                update.addBatch();
+                if (++count % BATCH_SIZE == 0)
+                    update.executeBatch();
+            }
+            if (count % BATCH_SIZE != 0)
+                update.executeBatch();
+            log.info("Converted dates of {} records to epoch days (timezone: {})", count, zone);
+        }
+    }
+
+    private static long toEpochDay(long value, ZoneId zone) {
+        if (Math.abs(value) <= MAX_EPOCH_DAY)
+            return value;
+        return Instant.ofEpochMilli(value).atZone(zone).toLocalDate().toEpochDay();
+    }
+}
@@ -0,0 +1,82 @@
+package com.curtisnewbie.dao.script;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>
+ * Script that brings the schema up to date, it runs the pending {@link VersionedScript}s in order of their versions
+ * </p>
+ * <p>
+ * The schema version is read from {@code PRAGMA user_version} first, if the database is already at the latest version,
+ * nothing else is done, i.e., no resource is read and no DDL is executed. Otherwise, the initialise script (for a
+ * database that is never versioned) and the pending scripts are executed in one transaction, together with the update
+ * of the schema version, so either all of them are applied or none of them.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public class SchemaMigrationScript extends AbstractScript {
+
+    private final PreInitializationScript initialiseScript;
+    private final List<VersionedScript> scripts;
+    private final int latestVersion;
+
+    /**
+     * @param initialiseScript script that creates the tables, it only runs for a database that is never versioned
+     * @param scripts          versioned scripts, the versions must be unique
+     */
+    public SchemaMigrationScript(PreInitializationScript initialiseScript, List<VersionedScript> scripts) {
+        this.initialiseScript = initialiseScript;
+        this.scripts = new ArrayList<>(scripts);
+        this.scripts.sort(Comparator.comparingInt(VersionedScript::getVersion));
+        for (int i = 1; i < this.scripts.size(); i++) {
+            if (this.scripts.get(i).getVersion() == this.scripts.get(i - 1).getVersion())
+                throw new IllegalArgumentException("Duplicate schema version: " + this.scripts.get(i).getVersion());
+        }
+        this.latestVersion = this.scripts.isEmpty() ? 0 : this.scripts.get(this.scripts.size() - 1).getVersion();
+    }
+
+    /**
+     * Get the latest schema version
+     */
+    public int getLatestVersion() {
+        return latestVersion;
+    }
+
+    @Override
+    public void preInitialize(ScriptRunner runner, Connection conn) throws SQLException {
+        final int currVersion = getUserVersion(conn);
+        if (currVersion >= latestVersion && currVersion > 0) {
+            log.info("Schema version is {}, it's up to date", currVersion);
+            return;
+        }
+
+        log.info("Migrating schema from version {} to {}", currVersion, latestVersion);
+        final boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            if (currVersion == 0)
+                initialiseScript.preInitialize(runner, conn);
+            for (VersionedScript s : scripts) {
+                if (s.getVersion() > currVersion) {
+                    log.info("Running {} (version: {})", s.getClass().getSimpleName(), s.getVersion());
+                    s.migrate(runner, conn);
+                }
+            }
+            setUserVersion(conn, latestVersion);
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -5,6 +5,9 @@ import lombok.extern.slf4j.Slf4j;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Simple implementation of {@link ScriptRunner}
@@ -16,6 +19,10 @@ public class SimpleScriptRunner implements ScriptRunner {
 
     private final String COMMENT_PREFIX = "--";
     private final String SPACE = " ";
+    private final String STMT_DELIMITER = ";";
+    private final Pattern CREATE_TRIGGER_PATTERN = Pattern.compile("^\\s*CREATE\\s+(TEMP\\s+|TEMPORARY\\s+)?TRIGGER\\s.*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private final String TRIGGER_END = "END";
 
     @Override
     public void runScript(Connection connection, String script) throws SQLException {
@@ -32,15 +39,38 @@ public class SimpleScriptRunner implements ScriptRunner {
                 sb.append(SPACE).append(line);
         }
 
-        String[] commands = sb.toString().split(";");
-        for (String c : commands) {
+        for (String c : splitStatements(sb.toString())) {
             doExecute(connection, c);
         }
     }
 
+    /**
+     * Split script into statements, the body of a trigger (i.e., {@code BEGIN ...; END}) is kept in one statement
+     */
+    private List<String> splitStatements(String script) {
+        final List<String> statements = new ArrayList<>();
+        StringBuilder trigger = null;
+        for (String s : script.split(STMT_DELIMITER)) {
+            if (trigger != null) {
+                trigger.append(STMT_DELIMITER).append(s);
+                if (s.trim().equalsIgnoreCase(TRIGGER_END)) {
+                    statements.add(trigger.toString());
+                    trigger = null;
+                }
+            } else if (CREATE_TRIGGER_PATTERN.matcher(s).matches()) {
+                trigger = new StringBuilder(s);
+            } else {
+                statements.add(s);
+            }
+        }
+        if (trigger != null)
+            throw new IllegalArgumentException("Incomplete trigger in script, missing 'END': " + trigger);
+        return statements;
+    }
+
     private void doExecute(Connection connection, String command) throws SQLException {
         try (Statement stmt = connection.createStatement()) {
-            log.info("Do execute: \n" + command + "\n");
+            log.debug("Do execute: \n" + command + "\n");
             stmt.execute(command);
         }
     }
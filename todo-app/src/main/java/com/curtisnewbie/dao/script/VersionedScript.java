@@ -0,0 +1,58 @@
+package com.curtisnewbie.dao.script;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * <p>
+ * Script that migrates the schema to a specific version, it only runs once for each database
+ * </p>
+ * <p>
+ * The schema version is tracked by {@code PRAGMA user_version}, the script is skipped if the database is already at
+ * (or above) its version, and the version is bumped in the same transaction as the script.
+ * </p>
+ * <p>
+ * The scripts are normally run together by {@link SchemaMigrationScript}, which calls {@link #migrate(ScriptRunner,
+ * Connection)} within its own transaction, so the script itself must not commit or rollback.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public abstract class VersionedScript extends AbstractScript implements PreInitializationScript {
+
+    /**
+     * Schema version after this script is executed, it must be greater than 0 and unique among scripts
+     */
+    public abstract int getVersion();
+
+    /**
+     * Migrate the schema to {@link #getVersion()}, it's called within a transaction
+     */
+    protected abstract void migrate(ScriptRunner runner, Connection conn) throws SQLException;
+
+    @Override
+    public void preInitialize(ScriptRunner runner, Connection conn) throws SQLException {
+        final int currVersion = getUserVersion(conn);
+        if (currVersion >= getVersion()) {
+            log.debug("Schema version is {}, skip {} (version: {})", currVersion, getClass().getSimpleName(), getVersion());
+            return;
+        }
+
+        log.info("Migrating schema from version {} to {}", currVersion, getVersion());
+        final boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            migrate(runner, conn);
+            setUserVersion(conn, getVersion());
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
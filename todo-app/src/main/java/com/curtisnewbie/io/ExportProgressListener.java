@@ -0,0 +1,19 @@
+package com.curtisnewbie.io;
+
+/**
+ * <p>
+ * Listener of the progress of exporting {@code TodoJob}
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@FunctionalInterface
+public interface ExportProgressListener {
+
+    /**
+     * Called periodically while the records are being exported
+     *
+     * @param exported number of records exported so far
+     */
+    void onProgress(int exported);
+}
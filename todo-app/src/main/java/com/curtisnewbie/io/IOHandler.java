@@ -2,11 +2,13 @@ package com.curtisnewbie.io;
 
 import com.curtisnewbie.config.Config;
 import com.curtisnewbie.dao.TodoJob;
+import com.curtisnewbie.dao.TodoJobMapper;
 import com.curtisnewbie.exception.FailureToLoadException;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
@@ -26,6 +28,21 @@ public interface IOHandler {
      */
     List<TodoJob> loadTodoJob(File file) throws FailureToLoadException;
 
+    /**
+     * Import {@code TodoJob} from a save file (a JSON array) into database in an asynchronous way
+     * <p>
+     * The file is parsed as a stream, one {@code TodoJob} at a time, and the records are inserted in batches, so the
+     * memory used doesn't grow with the size of the file. The batches imported before an error are kept.
+     * </p>
+     *
+     * @param file     where the job-list is saved
+     * @param mapper   mapper used to insert the records
+     * @param listener listener of progress, nullable
+     * @return future of the number of records imported, it's completed exceptionally with {@link
+     * FailureToLoadException} if the file can't be parsed
+     */
+    CompletableFuture<Integer> importTodoJobAsync(File file, TodoJobMapper mapper, ImportProgressListener listener);
+
     /**
      * Generate the configuration file if not exists
      */
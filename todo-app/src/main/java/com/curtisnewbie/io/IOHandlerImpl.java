@@ -2,23 +2,26 @@ package com.curtisnewbie.io;
 
 import com.curtisnewbie.config.Config;
 import com.curtisnewbie.dao.TodoJob;
+import com.curtisnewbie.dao.TodoJobMapper;
 import com.curtisnewbie.exception.FailureToLoadException;
 import com.curtisnewbie.util.CountdownTimer;
-import com.curtisnewbie.util.StrUtil;
+import com.curtisnewbie.util.ExecutorRegistry;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Function;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 import static com.curtisnewbie.util.ToastUtil.toast;
-import static java.util.concurrent.CompletableFuture.runAsync;
 
 /**
  * @author yongjie.zhuang
@@ -28,6 +31,8 @@ public class IOHandlerImpl implements IOHandler {
     private static final String DIR_NAME = "todo-app";
     private static final String CONF_NAME = "settings.json";
     private static final String BASE_PATH = System.getProperty("user.home") + File.separator + DIR_NAME;
+    /** number of records inserted in one transaction when importing */
+    private static final int IMPORT_BATCH_SIZE = 2000;
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
     static {
@@ -43,18 +48,9 @@ public class IOHandlerImpl implements IOHandler {
             if (!saveFile.exists()) {
                 return Collections.EMPTY_LIST;
             } else {
-                try (BufferedReader br = new BufferedReader(new FileReader(saveFile))) {
-                    StringBuilder sb = new StringBuilder();
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        sb.append(line);
-                    }
-                    String json = sb.toString();
-                    List<TodoJob> list;
-                    if (StrUtil.isEmpty(json) || json.matches("^\\[\\s+\\]$"))
-                        list = Collections.EMPTY_LIST;
-                    else
-                        list = Arrays.asList(objectMapper.readValue(json, TodoJob[].class));
+                try (JsonParser parser = objectMapper.getFactory().createParser(saveFile)) {
+                    List<TodoJob> list = new ArrayList<>();
+                    readTodoJobs(parser, list::add);
                     timer.stop();
                     log.debug(String.format("Loaded %d records, took %.2f milliseconds\n", list.size(), timer.getMilliSec()));
                     return list;
@@ -65,6 +61,72 @@ public class IOHandlerImpl implements IOHandler {
         }
     }
 
+    @Override
+    public CompletableFuture<Integer> importTodoJobAsync(File file, TodoJobMapper mapper, ImportProgressListener listener) {
+        return ExecutorRegistry.fileIo().supplyAsync(() -> {
+            CountdownTimer timer = new CountdownTimer();
+            timer.start();
+            final long totalBytes = file.length();
+            final int[] imported = {0};
+            final List<TodoJob> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            try (JsonParser parser = objectMapper.getFactory().createParser(file)) {
+                // at most one batch is being inserted while the next one is parsed
+                final CompletableFuture<?>[] inFlight = {CompletableFuture.completedFuture(null)};
+                readTodoJobs(parser, todoJob -> {
+                    todoJob.setId(null);
+                    batch.add(todoJob);
+                    if (batch.size() >= IMPORT_BATCH_SIZE) {
+                        inFlight[0] = insertBatch(mapper, inFlight[0], batch, imported, parser, totalBytes, listener);
+                        batch.clear();
+                    }
+                });
+                if (!batch.isEmpty())
+                    inFlight[0] = insertBatch(mapper, inFlight[0], batch, imported, parser, totalBytes, listener);
+                inFlight[0].join();
+            } catch (IOException e) {
+                throw new CompletionException(new FailureToLoadException(e));
+            }
+            timer.stop();
+            log.info(String.format("Imported %d records from '%s', took %.2f milliseconds", imported[0], file.getName(),
+                    timer.getMilliSec()));
+            return imported[0];
+        });
+    }
+
+    /**
+     * Wait for the previous batch, then submit the given one, the batch is copied as it's reused by the caller
+     *
+     * @return future of the submitted batch
+     */
+    private static CompletableFuture<?> insertBatch(TodoJobMapper mapper, CompletableFuture<?> prev, List<TodoJob> batch,
+                                                    int[] imported, JsonParser parser, long totalBytes,
+                                                    ImportProgressListener listener) {
+        prev.join();
+        final int size = batch.size();
+        final long bytesRead = parser.getCurrentLocation().getByteOffset();
+        return mapper.insertAllAsync(new ArrayList<>(batch))
+                .thenRun(() -> {
+                    final int total = imported[0] += size;
+                    if (listener != null)
+                        listener.onProgress(total, bytesRead, totalBytes);
+                });
+    }
+
+    /**
+     * Read the JSON array of {@code TodoJob} one element at a time, an empty file is treated as an empty array
+     */
+    private static void readTodoJobs(JsonParser parser, Consumer<TodoJob> consumer) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null)
+            return;
+        if (token != JsonToken.START_ARRAY)
+            throw new IOException("Expected a JSON array of TodoJob, but found " + token + " at " + parser.getCurrentLocation());
+        while ((token = parser.nextToken()) == JsonToken.START_OBJECT)
+            consumer.accept(objectMapper.readValue(parser, TodoJob.class));
+        if (token != JsonToken.END_ARRAY)
+            throw new IOException("Unexpected " + token + " at " + parser.getCurrentLocation());
+    }
+
     @Override
     public void generateConfIfNotExists() {
         File conf = new File(getConfPath());
@@ -104,7 +166,7 @@ public class IOHandlerImpl implements IOHandler {
     public void writeObjectsAsync(String content, File file) {
         if (file == null)
             return;
-        runAsync(() -> {
+        ExecutorRegistry.fileIo().runAsync(() -> {
             try {
                 if (!file.exists())
                     file.createNewFile();
@@ -132,7 +194,7 @@ public class IOHandlerImpl implements IOHandler {
 
     @Override
     public void writeConfigAsync(Config config) {
-        CompletableFuture.runAsync(() -> {
+        ExecutorRegistry.fileIo().runAsync(() -> {
             File file = new File(getConfPath());
             try {
                 if (!file.exists()) file.createNewFile();
@@ -0,0 +1,21 @@
+package com.curtisnewbie.io;
+
+/**
+ * <p>
+ * Listener of the progress of importing {@code TodoJob}
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@FunctionalInterface
+public interface ImportProgressListener {
+
+    /**
+     * Called after each batch is imported
+     *
+     * @param imported   number of records imported so far
+     * @param bytesRead  number of bytes parsed so far
+     * @param totalBytes size of the file
+     */
+    void onProgress(int imported, long bytesRead, long totalBytes);
+}
@@ -2,6 +2,8 @@ package com.curtisnewbie.io;
 
 import com.curtisnewbie.config.*;
 
+import java.io.IOException;
+
 /**
  * An object as a printer of other object
  *
@@ -18,4 +20,16 @@ public interface ObjectPrinter<T> {
      * @param context context
      */
     String printObject(T t, String pattern, PrintContext context);
+
+    /**
+     * Print object to the appendable
+     *
+     * @param t       object
+     * @param pattern pattern
+     * @param context context
+     * @param out     where the object is printed to
+     */
+    default void printObject(T t, String pattern, PrintContext context, Appendable out) throws IOException {
+        out.append(printObject(t, pattern, context));
+    }
 }
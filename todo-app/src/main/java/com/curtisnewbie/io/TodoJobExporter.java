@@ -0,0 +1,152 @@
+package com.curtisnewbie.io;
+
+import com.curtisnewbie.dao.TodoJob;
+import com.curtisnewbie.dao.TodoJobMapper;
+import com.curtisnewbie.util.CountdownTimer;
+import com.curtisnewbie.util.ExecutorRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * <p>
+ * Exporter of {@link TodoJob}, the records are streamed from database and printed to the output one at a time, so
+ * the memory used doesn't grow with the number of records exported
+ * </p>
+ * <p>
+ * The export is cancelled by cancelling the returned future, the records printed before that are kept
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public final class TodoJobExporter {
+
+    /** number of records between each progress report */
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    private final TodoJobMapper mapper;
+    private final ObjectPrinter<TodoJob> printer;
+
+    public TodoJobExporter(TodoJobMapper mapper, ObjectPrinter<TodoJob> printer) {
+        this.mapper = Objects.requireNonNull(mapper);
+        this.printer = Objects.requireNonNull(printer);
+    }
+
+    /**
+     * Export the records between the dates to the file, the file is created or overwritten
+     * <p>
+     * The file is opened and closed in the file I/O executor, and the future is completed only after the file is
+     * closed, so the content is fully written when the future completes normally
+     * </p>
+     *
+     * @param file      file
+     * @param name      name to search, nullable
+     * @param startDate start date
+     * @param endDate   end date
+     * @param pattern   export pattern, nullable
+     * @param context   print context
+     * @param listener  listener of progress, nullable
+     * @return future of the number of records exported
+     */
+    public CompletableFuture<Integer> exportAsync(File file, String name, LocalDate startDate, LocalDate endDate,
+                                                  String pattern, PrintContext context, ExportProgressListener listener) {
+        Objects.requireNonNull(file);
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        ExecutorRegistry.fileIo().supplyAsync(() -> open(file))
+                .thenCompose(writer -> export(writer, name, startDate, endDate, pattern, context, listener, future)
+                        .handleAsync((count, err) -> close(writer, count, err), ExecutorRegistry.fileIo()))
+                .whenComplete((count, err) -> complete(future, count, err));
+        return future;
+    }
+
+    /**
+     * Export the records between the dates to the appendable
+     *
+     * @param out       where the records are printed to, it's not closed by the exporter
+     * @param name      name to search, nullable
+     * @param startDate start date
+     * @param endDate   end date
+     * @param pattern   export pattern, nullable
+     * @param context   print context
+     * @param listener  listener of progress, nullable
+     * @return future of the number of records exported
+     */
+    public CompletableFuture<Integer> exportAsync(Appendable out, String name, LocalDate startDate, LocalDate endDate,
+                                                  String pattern, PrintContext context, ExportProgressListener listener) {
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        export(out, name, startDate, endDate, pattern, context, listener, future)
+                .whenComplete((count, err) -> complete(future, count, err));
+        return future;
+    }
+
+    /**
+     * Stream the records to the appendable, the streaming stops early if the returned future of the export is
+     * cancelled
+     *
+     * @param exportFuture future returned to the caller of the export, it's not completed here
+     * @return future of the number of records exported, it's completed after the streaming ends
+     */
+    private CompletableFuture<Integer> export(Appendable out, String name, LocalDate startDate, LocalDate endDate,
+                                              String pattern, PrintContext context, ExportProgressListener listener,
+                                              CompletableFuture<Integer> exportFuture) {
+        final CountdownTimer timer = new CountdownTimer();
+        timer.start();
+        final int[] exported = {0};
+        return mapper.findBetweenDatesAsync(name, startDate, endDate, todoJob -> {
+            // the export future is only completed before the streaming ends when it's cancelled by the caller
+            if (exportFuture.isDone())
+                return false;
+            try {
+                if (exported[0] > 0)
+                    out.append('\n');
+                printer.printObject(todoJob, pattern, context, out);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            exported[0]++;
+            if (listener != null && exported[0] % PROGRESS_INTERVAL == 0)
+                listener.onProgress(exported[0]);
+            return true;
+        }).thenApply(ignored -> {
+            timer.stop();
+            log.debug(String.format("Exported %d records, took %.2f milliseconds", exported[0], timer.getMilliSec()));
+            return exported[0];
+        });
+    }
+
+    private static Writer open(File file) {
+        try {
+            return new BufferedWriter(new FileWriter(file));
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Close the writer, a failure to close it (i.e., to flush the rest of the content) fails the export
+     */
+    private static Integer close(Writer writer, Integer count, Throwable err) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (err == null)
+                throw new CompletionException(e);
+            err.addSuppressed(e);
+        }
+        if (err != null)
+            throw err instanceof CompletionException ? (CompletionException) err : new CompletionException(err);
+        return count;
+    }
+
+    private static void complete(CompletableFuture<Integer> future, Integer count, Throwable err) {
+        if (err != null)
+            future.completeExceptionally(err);
+        else
+            future.complete(count);
+    }
+}
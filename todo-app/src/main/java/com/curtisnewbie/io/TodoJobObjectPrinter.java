@@ -2,15 +2,12 @@ package com.curtisnewbie.io;
 
 import com.curtisnewbie.config.*;
 import com.curtisnewbie.dao.TodoJob;
-import com.curtisnewbie.util.StrInterpolationUtil;
 import com.curtisnewbie.util.StrUtil;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
 
 import static com.curtisnewbie.config.PropertyConstants.*;
 import static com.curtisnewbie.util.DateUtil.toDDmmUUUUSlash;
-import static com.curtisnewbie.util.StrInterpolationUtil.*;
 
 /**
  * ObjectPrinter for {@link TodoJob}
@@ -35,40 +32,61 @@ public class TodoJobObjectPrinter implements ObjectPrinter<TodoJob> {
     private static final int ENG_WIDTH = 13;
     private static final int CN_WIDTH = 5;
 
+    /** template compiled from the last pattern used, it's recompiled when the pattern changes */
+    private volatile TodoJobTemplate template;
+
     @Override
     public String printObject(TodoJob todoJob, String pattern, PrintContext context) {
+        final StringBuilder sb = new StringBuilder();
+        try {
+            printObject(todoJob, pattern, context, sb);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // never happens for StringBuilder
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void printObject(TodoJob todoJob, String pattern, PrintContext context, Appendable out) throws IOException {
         final Environment environment = context.getEnvironment();
-        final PropertiesLoader propertiesLoader = PropertiesLoader.getInstance();
-        final String status = todoJob.isDone() ? propertiesLoader.getLocalizedProperty(TEXT_DONE_KEY) : propertiesLoader.getLocalizedProperty(TEXT_IN_PROGRESS_KEY);
-        final String expectedEndDate = toDDmmUUUUSlash(todoJob.getExpectedEndDate());
-        final String actualEndDate = todoJob.getActualEndDate() != null ? toDDmmUUUUSlash(todoJob.getActualEndDate()) : "__/__/____";
-        final String content = formatContent(todoJob.getName(), environment.isSpecialTagEnabled());
+        if (context.isNumbered())
+            out.append(String.valueOf(context.getAndIncr())).append(". ");
 
         // no pattern specified, use the default one
         if (pattern == null || StrUtil.isEmpty(pattern)) {
-            return prefixNumberIfNeeded(context, defaultPattern(status, actualEndDate, expectedEndDate, content, environment));
+            out.append(defaultPattern(formatStatus(todoJob), formatActualEndDate(todoJob), formatExpectedEndDate(todoJob),
+                    formatContent(todoJob.getName(), environment.isSpecialTagEnabled()), environment));
+            return;
         }
+        templateOf(pattern).render(todoJob, environment, out);
+    }
+
+    private TodoJobTemplate templateOf(String pattern) {
+        TodoJobTemplate t = template;
+        if (t == null || !t.getPattern().equals(pattern)) {
+            t = TodoJobTemplate.compile(pattern);
+            template = t;
+        }
+        return t;
+    }
 
-        // do string interpolation based on the given pattern
-        Map<String, String> params = new HashMap<>();
-        params.put(EXPECTED_END_DATE_KEY, expectedEndDate);
-        params.put(ACTUAL_END_DATE_KEY, actualEndDate);
-        params.put(STATUS_KEY, status);
-        params.put(CONTENT_KEY, content);
-        return prefixNumberIfNeeded(context, interpolate(pattern, params));
+    static String formatStatus(TodoJob todoJob) {
+        final PropertiesLoader propertiesLoader = PropertiesLoader.getInstance();
+        return todoJob.isDone() ? propertiesLoader.getLocalizedProperty(TEXT_DONE_KEY) : propertiesLoader.getLocalizedProperty(TEXT_IN_PROGRESS_KEY);
     }
 
-    private static String prefixNumberIfNeeded(PrintContext context, String content) {
-        if (!context.isNumbered())
-            return content;
+    static String formatExpectedEndDate(TodoJob todoJob) {
+        return toDDmmUUUUSlash(todoJob.getExpectedEndDate());
+    }
 
-        return String.format("%s. %s", context.getAndIncr(), content);
+    static String formatActualEndDate(TodoJob todoJob) {
+        return todoJob.getActualEndDate() != null ? toDDmmUUUUSlash(todoJob.getActualEndDate()) : "__/__/____";
     }
 
-    private static String formatContent(String content, boolean isTagStripped) {
+    static String formatContent(String content, boolean isTagStripped) {
         if (isTagStripped)
             content = Tag.EXCL.strip(content);
-        return content.replaceAll("\\n", "\n  ");
+        return content.replace("\n", "\n  ");
     }
 
     /** default formatting */
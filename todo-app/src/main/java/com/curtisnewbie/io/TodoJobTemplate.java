@@ -0,0 +1,153 @@
+package com.curtisnewbie.io;
+
+import com.curtisnewbie.config.Environment;
+import com.curtisnewbie.dao.TodoJob;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static com.curtisnewbie.io.TodoJobObjectPrinter.*;
+
+/**
+ * <p>
+ * Export pattern compiled into a list of literal and field segments, e.g., {@code "[${status}] ${content}"} is
+ * compiled to {@code "[", status, "] ", content}
+ * </p>
+ * <p>
+ * A placeholder is only recognised when its key is exactly one of the keys supported by {@link TodoJobObjectPrinter},
+ * anything else is kept as literal text
+ * </p>
+ * <p>
+ * This class is immutable, thus thread-safe
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+final class TodoJobTemplate {
+
+    private static final String PLACEHOLDER_PREFIX = "${";
+    private static final char PLACEHOLDER_SUFFIX = '}';
+
+    private final String pattern;
+    private final List<Segment> segments;
+
+    private TodoJobTemplate(String pattern, List<Segment> segments) {
+        this.pattern = pattern;
+        this.segments = Collections.unmodifiableList(segments);
+    }
+
+    /**
+     * Compile the pattern
+     */
+    static TodoJobTemplate compile(String pattern) {
+        Objects.requireNonNull(pattern);
+        final List<Segment> segments = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            final int start = pattern.indexOf(PLACEHOLDER_PREFIX, i);
+            final int end = start < 0 ? -1 : pattern.indexOf(PLACEHOLDER_SUFFIX, start + PLACEHOLDER_PREFIX.length());
+            if (end < 0) {
+                literal.append(pattern, i, pattern.length());
+                break;
+            }
+            final Field field = Field.of(pattern.substring(start + PLACEHOLDER_PREFIX.length(), end));
+            if (field == null) {
+                // not a placeholder, keep the '${' and continue right after it
+                literal.append(pattern, i, start + PLACEHOLDER_PREFIX.length());
+                i = start + PLACEHOLDER_PREFIX.length();
+                continue;
+            }
+            literal.append(pattern, i, start);
+            if (literal.length() > 0) {
+                segments.add(new Segment(literal.toString(), null));
+                literal.setLength(0);
+            }
+            segments.add(new Segment(null, field));
+            i = end + 1;
+        }
+        if (literal.length() > 0)
+            segments.add(new Segment(literal.toString(), null));
+        return new TodoJobTemplate(pattern, segments);
+    }
+
+    /**
+     * Get the pattern that is compiled
+     */
+    String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Render the todoJob to the appendable
+     */
+    void render(TodoJob todoJob, Environment environment, Appendable out) throws IOException {
+        for (Segment s : segments) {
+            if (s.literal != null)
+                out.append(s.literal);
+            else
+                out.append(s.field.valueOf(todoJob, environment));
+        }
+    }
+
+    private static final class Segment {
+        /** literal text, null if it's a field */
+        private final String literal;
+        /** field, null if it's a literal */
+        private final Field field;
+
+        private Segment(String literal, Field field) {
+            this.literal = literal;
+            this.field = field;
+        }
+    }
+
+    private enum Field {
+        EXPECTED_END_DATE(EXPECTED_END_DATE_KEY) {
+            @Override
+            String valueOf(TodoJob todoJob, Environment environment) {
+                return formatExpectedEndDate(todoJob);
+            }
+        },
+        ACTUAL_END_DATE(ACTUAL_END_DATE_KEY) {
+            @Override
+            String valueOf(TodoJob todoJob, Environment environment) {
+                return formatActualEndDate(todoJob);
+            }
+        },
+        STATUS(STATUS_KEY) {
+            @Override
+            String valueOf(TodoJob todoJob, Environment environment) {
+                return formatStatus(todoJob);
+            }
+        },
+        CONTENT(CONTENT_KEY) {
+            @Override
+            String valueOf(TodoJob todoJob, Environment environment) {
+                return formatContent(todoJob.getName(), environment.isSpecialTagEnabled());
+            }
+        };
+
+        private final String key;
+
+        Field(String key) {
+            this.key = key;
+        }
+
+        abstract String valueOf(TodoJob todoJob, Environment environment);
+
+        /**
+         * Find field by key, or null if not found
+         */
+        static Field of(String key) {
+            for (Field f : values()) {
+                if (f.key.equals(key))
+                    return f;
+            }
+            return null;
+        }
+    }
+}
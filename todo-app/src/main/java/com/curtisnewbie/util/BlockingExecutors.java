@@ -0,0 +1,37 @@
+package com.curtisnewbie.util;
+
+/**
+ * <p>
+ * Factory of the executors for blocking file I/O
+ * </p>
+ * <p>
+ * This is the JDK 8 version, which creates fixed-size pools of platform threads. The jar is a multi-release jar, on
+ * JDK 21 or later, the version in {@code src/main/java21} is loaded instead, which starts a virtual thread per task.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see ExecutorRegistry
+ */
+final class BlockingExecutors {
+
+    private BlockingExecutors() {
+    }
+
+    /**
+     * Whether the executors created run the tasks in virtual threads
+     */
+    static boolean isVirtual() {
+        return false;
+    }
+
+    /**
+     * Create executor for blocking file I/O
+     *
+     * @param name          name of the executor
+     * @param threads       number of threads, it's the max number of tasks running at the same time
+     * @param queueCapacity max number of tasks waiting to run
+     */
+    static InstrumentedExecutor newExecutor(String name, int threads, int queueCapacity) {
+        return new InstrumentedExecutor(name, threads, queueCapacity);
+    }
+}
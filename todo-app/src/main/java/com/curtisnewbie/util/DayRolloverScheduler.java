@@ -0,0 +1,133 @@
+package com.curtisnewbie.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Scheduler that runs a callback when the local date changes
+ * </p>
+ * <p>
+ * A single timer is armed for the next local midnight. The delay of the timer is measured by a monotonic clock, so a
+ * jump of the wall clock (e.g., it's adjusted manually) would make it fire at a wrong time. To bound the error, the
+ * timer never sleeps longer than {@link #MAX_SLEEP}, every wake up checks the date and re-arms the timer for the new
+ * midnight, so a date change caused by a jump is noticed within {@link #MAX_SLEEP}. A wake up that doesn't see a new
+ * date doesn't run the callback.
+ * </p>
+ * <p>
+ * The time zone is {@link ZoneId#systemDefault()}, which the JVM reads once, a change of the system's time zone is
+ * not seen until the application is restarted.
+ * </p>
+ * <p>
+ * The callback is also run when the date goes backwards. It's run in the timer thread.
+ * </p>
+ * <p>
+ * This class is thread-safe
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public final class DayRolloverScheduler implements AutoCloseable {
+
+    /** Max time the timer sleeps, a jump of the wall clock is noticed within this period */
+    static final Duration MAX_SLEEP = Duration.ofHours(1);
+
+    private final Runnable onRollover;
+    private final Supplier<ZonedDateTime> clock;
+    private final ScheduledExecutorService timer;
+
+    /** date when the timer is armed */
+    @LockedBy(name = "this")
+    private LocalDate lastDate;
+    /** the armed timer, nullable */
+    @LockedBy(name = "this")
+    private ScheduledFuture<?> armed;
+
+    /**
+     * @param onRollover callback run when the date changes
+     */
+    public DayRolloverScheduler(Runnable onRollover) {
+        this(onRollover, () -> ZonedDateTime.now(ZoneId.systemDefault()));
+    }
+
+    DayRolloverScheduler(Runnable onRollover, Supplier<ZonedDateTime> clock) {
+        Objects.requireNonNull(onRollover);
+        Objects.requireNonNull(clock);
+        this.onRollover = onRollover;
+        this.clock = clock;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread t = new Thread(r, "day-rollover");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Arm the timer for the next midnight
+     */
+    public synchronized void start() {
+        if (armed != null)
+            return;
+        final ZonedDateTime now = clock.get();
+        lastDate = now.toLocalDate();
+        arm(now);
+    }
+
+    /**
+     * Stop the timer, it can't be started again
+     */
+    @Override
+    public synchronized void close() {
+        if (armed != null)
+            armed.cancel(false);
+        timer.shutdownNow();
+    }
+
+    /**
+     * Get the delay from now to the next time the timer wakes up, it's the next midnight, or {@link #MAX_SLEEP} later
+     * if the midnight is further away
+     */
+    static Duration nextDelay(ZonedDateTime now) {
+        final ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(now.getZone());
+        final Duration untilMidnight = Duration.between(now, midnight);
+        return untilMidnight.compareTo(MAX_SLEEP) < 0 ? untilMidnight : MAX_SLEEP;
+    }
+
+    private void arm(ZonedDateTime now) {
+        if (timer.isShutdown())
+            return;
+        armed = timer.schedule(this::onTimer, nextDelay(now).toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void onTimer() {
+        final LocalDate today;
+        final boolean isRolledOver;
+        synchronized (this) {
+            final ZonedDateTime now = clock.get();
+            today = now.toLocalDate();
+            isRolledOver = !today.equals(lastDate);
+            lastDate = today;
+            arm(now);
+        }
+
+        if (isRolledOver) {
+            log.info("Date is changed to {}", today);
+            try {
+                onRollover.run();
+            } catch (RuntimeException e) {
+                log.error("Failed to run callback for date change", e);
+            }
+        }
+    }
+}
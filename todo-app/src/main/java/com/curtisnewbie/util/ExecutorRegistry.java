@@ -0,0 +1,117 @@
+package com.curtisnewbie.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Registry of the executors where the asynchronous work of the app runs, instead of
+ * {@link java.util.concurrent.ForkJoinPool#commonPool()}
+ * </p>
+ * <ul>
+ * <li>{@link #db()} for blocking JDBC calls, it has as many platform threads as the read-only connections, so a
+ * query holding a thread never waits for a connection</li>
+ * <li>{@link #fileIo()} for reading and writing files</li>
+ * <li>{@link #cpu()} for short, non-blocking work, e.g., the continuations of the futures</li>
+ * </ul>
+ * <p>
+ * Blocking calls must not be run in {@link #cpu()}, and the tasks in {@link #db()} should not wait for each other, as
+ * the pools are small and bounded.
+ * </p>
+ * <p>
+ * On JDK 21 or later, {@link #fileIo()} starts a virtual thread per task instead (see {@link BlockingExecutors}), the
+ * number of tasks in flight is bounded the same way, but more of them may block at the same time. {@link #db()} always
+ * runs in platform threads, the JDBC calls are native and synchronized calls that pin the virtual threads to their
+ * carriers, and running more of them than the connections would only move the wait from the queue to the pool.
+ * </p>
+ * <p>
+ * The metrics of the executors are logged every {@link #METRICS_LOG_INTERVAL_MIN} minutes, an executor that has run
+ * tasks in the callers' threads since the last time (i.e., it's saturated) is logged as a warning.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public final class ExecutorRegistry {
+
+    /** Number of threads of {@link #db()}, it's the same as the number of read-only connections */
+    public static final int DB_THREADS = 3;
+    /** Number of threads of {@link #fileIo()}, on JDK 21 or later it's only a part of the bound of tasks in flight */
+    static final int FILE_IO_THREADS = 2;
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final long METRICS_LOG_INTERVAL_MIN = 5;
+
+    private static final InstrumentedExecutor DB = new InstrumentedExecutor("db", DB_THREADS, QUEUE_CAPACITY);
+    private static final InstrumentedExecutor FILE_IO = BlockingExecutors.newExecutor("file-io", FILE_IO_THREADS,
+            QUEUE_CAPACITY);
+    private static final InstrumentedExecutor CPU = new InstrumentedExecutor("cpu",
+            Math.max(2, Runtime.getRuntime().availableProcessors()), QUEUE_CAPACITY);
+
+    /** number of tasks run by the callers when the metrics are last logged, it's only used by the metrics logger */
+    private static final Map<String, Long> loggedCallerRuns = new HashMap<>();
+
+    static {
+        if (BlockingExecutors.isVirtual())
+            log.info("Blocking file I/O runs in virtual threads");
+
+        final ScheduledExecutorService metricsLogger = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread t = new Thread(r, "todo-app-executor-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        metricsLogger.scheduleWithFixedDelay(ExecutorRegistry::logMetrics, METRICS_LOG_INTERVAL_MIN,
+                METRICS_LOG_INTERVAL_MIN, TimeUnit.MINUTES);
+    }
+
+    private ExecutorRegistry() {
+    }
+
+    /**
+     * Executor for blocking database calls
+     */
+    public static InstrumentedExecutor db() {
+        return DB;
+    }
+
+    /**
+     * Executor for blocking file I/O
+     */
+    public static InstrumentedExecutor fileIo() {
+        return FILE_IO;
+    }
+
+    /**
+     * Executor for non-blocking work
+     */
+    public static InstrumentedExecutor cpu() {
+        return CPU;
+    }
+
+    /**
+     * Get all executors
+     */
+    public static List<InstrumentedExecutor> getAll() {
+        return Collections.unmodifiableList(Arrays.asList(DB, FILE_IO, CPU));
+    }
+
+    private static void logMetrics() {
+        for (InstrumentedExecutor e : getAll()) {
+            final InstrumentedExecutor.Metrics m = e.getMetrics();
+            final long prev = loggedCallerRuns.getOrDefault(m.getName(), 0L);
+            loggedCallerRuns.put(m.getName(), m.getCallerRunsCount());
+            if (m.getCallerRunsCount() > prev)
+                log.warn("Executor '{}' is saturated, {} tasks are run by the callers in the last {} minutes, {}",
+                        m.getName(), m.getCallerRunsCount() - prev, METRICS_LOG_INTERVAL_MIN, m);
+            else
+                log.debug("{}", m);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.curtisnewbie.util;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Executor with a bounded number of tasks in flight, which measures how long the tasks wait in the queue and how long
+ * they run
+ * </p>
+ * <p>
+ * It's backed by a fixed-size thread pool, or by any {@code ExecutorService} (e.g., one that starts a virtual thread
+ * per task, see {@link BlockingExecutors}). The threads are daemon threads named {@code "todo-app-<name>-<n>"}, they are
+ * created on demand. When too many tasks are in flight, the task is run by the thread submitting it, so that it's slowed
+ * down instead of the task being dropped. Threads that must never run the tasks themselves submit them through
+ * {@link #withoutCallerRuns()} instead.
+ * </p>
+ * <p>
+ * This class is thread-safe
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see ExecutorRegistry
+ */
+@Slf4j
+public final class InstrumentedExecutor implements Executor {
+
+    /** Time waited in queue that is logged as a warning */
+    private static final long SLOW_QUEUE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String name;
+    private final ExecutorService delegate;
+    /** max number of tasks queued or running */
+    private final int maxInFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+    private final Executor withoutCallerRuns = command -> execute(command, false);
+
+    /**
+     * @param name          name of the pool, used in the names of the threads
+     * @param threads       number of threads
+     * @param queueCapacity max number of tasks waiting in the queue
+     */
+    public InstrumentedExecutor(String name, int threads, int queueCapacity) {
+        this(name, newFixedThreadPool(name, threads), threads + requirePositive(queueCapacity, "queueCapacity"));
+    }
+
+    /**
+     * @param name        name of the executor
+     * @param delegate    executor service that runs the tasks, it's shut down with this executor
+     * @param maxInFlight max number of tasks queued or running
+     */
+    InstrumentedExecutor(String name, ExecutorService delegate, int maxInFlight) {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(delegate);
+        this.name = name;
+        this.delegate = delegate;
+        this.maxInFlight = requirePositive(maxInFlight, "maxInFlight");
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(command, true);
+    }
+
+    /**
+     * Get a view of this executor that never runs the tasks in the submitting thread, the tasks over the bound are
+     * queued anyway
+     * <p>
+     * It's for the threads that must not be slowed down by the tasks they submit (e.g., the single writer thread), the
+     * number of tasks they submit must be bounded by other means.
+     * </p>
+     */
+    public Executor withoutCallerRuns() {
+        return withoutCallerRuns;
+    }
+
+    /**
+     * Run the supplier in this executor
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, this);
+    }
+
+    /**
+     * Run the runnable in this executor
+     */
+    public CompletableFuture<Void> runAsync(Runnable runnable) {
+        return CompletableFuture.runAsync(runnable, this);
+    }
+
+    /**
+     * Get the name of the pool
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get a snapshot of the metrics
+     */
+    public Metrics getMetrics() {
+        final long count = completed.sum();
+        final int running = active.get();
+        return new Metrics(name,
+                Math.max(0, inFlight.get() - running),
+                running,
+                count,
+                callerRuns.sum(),
+                count == 0 ? 0 : totalQueueWaitNanos.sum() / count,
+                maxQueueWaitNanos.get(),
+                count == 0 ? 0 : totalRunNanos.sum() / count,
+                maxRunNanos.get());
+    }
+
+    /**
+     * Stop accepting new tasks, the tasks submitted are still executed
+     */
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return getMetrics().toString();
+    }
+
+    private void execute(Runnable command, boolean callerRunsWhenFull) {
+        Objects.requireNonNull(command);
+        final long submittedAt = System.nanoTime();
+        if (inFlight.incrementAndGet() > maxInFlight && callerRunsWhenFull) {
+            inFlight.decrementAndGet();
+            callerRuns.increment();
+            run(command, submittedAt);
+            return;
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    run(command, submittedAt);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void run(Runnable command, long submittedAt) {
+        final long startedAt = System.nanoTime();
+        active.incrementAndGet();
+        try {
+            command.run();
+        } finally {
+            active.decrementAndGet();
+            record(startedAt - submittedAt, System.nanoTime() - startedAt);
+        }
+    }
+
+    private void record(long queueWaitNanos, long runNanos) {
+        completed.increment();
+        totalQueueWaitNanos.add(queueWaitNanos);
+        totalRunNanos.add(runNanos);
+        maxQueueWaitNanos.accumulateAndGet(queueWaitNanos, Math::max);
+        maxRunNanos.accumulateAndGet(runNanos, Math::max);
+        if (queueWaitNanos > SLOW_QUEUE_WAIT_NANOS)
+            log.warn("Task waited {} ms in '{}' pool, {} tasks are queued", TimeUnit.NANOSECONDS.toMillis(queueWaitNanos),
+                    name, getMetrics().getQueueDepth());
+    }
+
+    private static ExecutorService newFixedThreadPool(String name, int threads) {
+        requirePositive(threads, "threads");
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            final Thread t = new Thread(r, "todo-app-" + name + "-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static int requirePositive(int value, String name) {
+        if (value < 1)
+            throw new IllegalArgumentException(name + " must be greater than 0");
+        return value;
+    }
+
+    /**
+     * Snapshot of the metrics of an {@link InstrumentedExecutor}, the times are in nanoseconds
+     */
+    @Value
+    public static class Metrics {
+        String name;
+        /** number of tasks waiting to run */
+        int queueDepth;
+        /** number of tasks running, including the ones run by the callers */
+        int activeCount;
+        /** number of tasks completed, including the ones run by the callers */
+        long completedCount;
+        /** number of tasks run by the callers because too many tasks are in flight */
+        long callerRunsCount;
+        long avgQueueWaitNanos;
+        long maxQueueWaitNanos;
+        long avgRunNanos;
+        long maxRunNanos;
+    }
+}
@@ -0,0 +1,126 @@
+package com.curtisnewbie.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Dispatcher of requests where only the latest one matters, e.g., loading the page that is displayed
+ * </p>
+ * <p>
+ * Each request is tagged with a generation number. Dispatching a request cancels the previous one if it's not
+ * finished yet, and the result of a request is delivered only if no newer request is dispatched by the time it's
+ * delivered, so a slow and outdated request never overwrites the result of a newer one.
+ * </p>
+ * <p>
+ * This class is thread-safe
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+@Slf4j
+public final class SequencedDispatcher {
+
+    private final Executor deliveryExecutor;
+
+    /** generation of the latest request */
+    @LockedBy(name = "this")
+    private long generation = 0;
+    /** the latest request, nullable */
+    @LockedBy(name = "this")
+    private CompletableFuture<?> latest;
+    /** whether the latest request is neither delivered nor failed yet */
+    @LockedBy(name = "this")
+    private boolean pending = false;
+
+    /**
+     * @param deliveryExecutor executor where the results are delivered, e.g., {@code Platform::runLater}
+     */
+    public SequencedDispatcher(Executor deliveryExecutor) {
+        Objects.requireNonNull(deliveryExecutor);
+        this.deliveryExecutor = deliveryExecutor;
+    }
+
+    /**
+     * Dispatch the request, the previous one is cancelled
+     *
+     * @param request  supplier of the request, cancelling the future it returns should abort the request
+     * @param consumer consumer of the result, it's called in the delivery executor, if the request is still the
+     *                 latest one
+     * @return generation of the request
+     */
+    public synchronized <T> long dispatch(Supplier<? extends CompletableFuture<T>> request, Consumer<T> consumer) {
+        final long gen = ++generation;
+        if (latest != null)
+            latest.cancel(true);
+        final CompletableFuture<T> future = request.get();
+        latest = future;
+        pending = true;
+
+        future.whenComplete((result, e) -> {
+            if (e != null) {
+                finish(gen);
+                if (!isCancellation(e))
+                    log.warn("Request (generation: {}) failed", gen, e);
+                return;
+            }
+            if (!isLatest(gen))
+                return;
+            deliveryExecutor.execute(() -> {
+                if (finish(gen))
+                    consumer.accept(result);
+            });
+        });
+        return gen;
+    }
+
+    /**
+     * Cancel the latest request, its result is not delivered
+     */
+    public synchronized void cancel() {
+        ++generation;
+        if (latest != null)
+            latest.cancel(true);
+        latest = null;
+        pending = false;
+    }
+
+    /**
+     * Whether the latest request is still running or its result is not delivered yet, a failed or cancelled request
+     * is not pending
+     */
+    public synchronized boolean isPending() {
+        return pending;
+    }
+
+    /**
+     * Whether the request is still the latest one
+     */
+    public synchronized boolean isLatest(long generation) {
+        return this.generation == generation;
+    }
+
+    /**
+     * Mark the request as finished if it's still the latest one
+     *
+     * @return whether the request is the latest one
+     */
+    private synchronized boolean finish(long generation) {
+        if (this.generation != generation)
+            return false;
+        pending = false;
+        return true;
+    }
+
+    private static boolean isCancellation(Throwable e) {
+        return e instanceof CancellationException
+                || (e instanceof CompletionException && e.getCause() instanceof CancellationException);
+    }
+}
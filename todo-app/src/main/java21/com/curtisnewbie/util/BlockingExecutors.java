@@ -0,0 +1,46 @@
+package com.curtisnewbie.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>
+ * Factory of the executors for blocking file I/O
+ * </p>
+ * <p>
+ * This is the JDK 21 version in the multi-release jar, which starts a virtual thread per task, so a blocking call only
+ * holds a cheap virtual thread instead of one of the few platform threads. The number of tasks in flight is still
+ * bounded, the threads and queue capacity are added up as the bound.
+ * </p>
+ * <p>
+ * It's not used for JDBC calls, the SQLite driver runs native code in synchronized methods, which pins the virtual
+ * thread to its carrier, so the virtual threads would not be cheaper than the platform ones there.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ * @see ExecutorRegistry
+ */
+final class BlockingExecutors {
+
+    private BlockingExecutors() {
+    }
+
+    /**
+     * Whether the executors created run the tasks in virtual threads
+     */
+    static boolean isVirtual() {
+        return true;
+    }
+
+    /**
+     * Create executor for blocking file I/O
+     *
+     * @param name          name of the executor
+     * @param threads       number of threads of the JDK 8 version, it's only a part of the bound here
+     * @param queueCapacity max number of tasks waiting to run
+     */
+    static InstrumentedExecutor newExecutor(String name, int threads, int queueCapacity) {
+        final ThreadFactory factory = Thread.ofVirtual().name("todo-app-" + name + "-", 1).factory();
+        return new InstrumentedExecutor(name, Executors.newThreadPerTaskExecutor(factory), threads + queueCapacity);
+    }
+}
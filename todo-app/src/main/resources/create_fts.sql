@@ -0,0 +1,19 @@
+-- 18/OCT/2026 full-text index for todojob.name, it only indexes the content of todojob (external content table)
+CREATE VIRTUAL TABLE IF NOT EXISTS todojob_fts USING fts5(name, content='todojob', content_rowid='id', prefix='2 3');
+
+-- keep the index in sync with todojob
+CREATE TRIGGER IF NOT EXISTS todojob_fts_ai AFTER INSERT ON todojob BEGIN
+    INSERT INTO todojob_fts (rowid, name) VALUES (new.id, new.name);
+END;
+
+CREATE TRIGGER IF NOT EXISTS todojob_fts_ad AFTER DELETE ON todojob BEGIN
+    INSERT INTO todojob_fts (todojob_fts, rowid, name) VALUES ('delete', old.id, old.name);
+END;
+
+CREATE TRIGGER IF NOT EXISTS todojob_fts_au AFTER UPDATE OF name ON todojob BEGIN
+    INSERT INTO todojob_fts (todojob_fts, rowid, name) VALUES ('delete', old.id, old.name);
+    INSERT INTO todojob_fts (rowid, name) VALUES (new.id, new.name);
+END;
+
+-- backfill existing rows
+INSERT INTO todojob_fts (todojob_fts) VALUES ('rebuild');
@@ -0,0 +1,8 @@
+-- 18/OCT/2026 indexes for the queries in TodoJobMapperImpl, both are covering indexes
+
+-- findByCursor, findByPage: ORDER BY is_done ASC, actual_end_date DESC, expected_end_date ASC, id ASC
+CREATE INDEX IF NOT EXISTS todojob_page_idx ON todojob (is_done ASC, actual_end_date DESC, expected_end_date ASC, id ASC, name);
+
+-- findBetweenDates: WHERE expected_end_date BETWEEN ? AND ? ORDER BY expected_end_date DESC, is_done ASC
+-- findEarliestDate, findLatestDate: ORDER BY expected_end_date ASC/DESC LIMIT 1
+CREATE INDEX IF NOT EXISTS todojob_date_idx ON todojob (expected_end_date DESC, is_done ASC, actual_end_date, name);
@@ -0,0 +1,130 @@
+package com.curtisnewbie.controller;
+
+import com.curtisnewbie.dao.TodoJob;
+import com.curtisnewbie.dao.TodoJobCursor;
+import junit.framework.TestCase;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verify that {@link ScrollWindows} keeps the loaded rows contiguous and bounded while the list is scrolled
+ *
+ * @author yongjie.zhuang
+ */
+public class ScrollWindowsTest extends TestCase {
+
+    private static final int WINDOW_SIZE = ScrollWindows.MIN_WINDOW_SIZE;
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    /** rows in database, sorted */
+    private final List<TodoJob> rows = new ArrayList<>();
+    /** rows in list view */
+    private final List<TodoJob> items = new ArrayList<>();
+    private final ScrollWindows windows = new ScrollWindows();
+    private int nextId = 1;
+
+    @Override
+    protected void setUp() {
+        for (int i = 0; i < 100; i++)
+            insert(TODAY.plusDays(i));
+        windows.setVisibleRowCount(1);
+    }
+
+    public void testScrollDownAndUp() {
+        while (windows.canLoadNext()) {
+            loadNext();
+            assertTrue(items.size() <= ScrollWindows.MAX_LOADED_WINDOWS * WINDOW_SIZE);
+            assertItemsAreContiguous();
+        }
+        assertEquals(rows.get(rows.size() - 1), items.get(items.size() - 1));
+
+        while (windows.canLoadPrev()) {
+            loadPrev();
+            assertTrue(items.size() <= ScrollWindows.MAX_LOADED_WINDOWS * WINDOW_SIZE);
+            assertItemsAreContiguous();
+        }
+        assertEquals(rows.get(0), items.get(0));
+    }
+
+    public void testRowsInsertedIntoEvictedWindow() {
+        for (int i = 0; i < 6; i++)
+            loadNext();
+        assertFalse(items.contains(rows.get(0)));
+
+        // more rows than the limit are inserted into the window right before the loaded ones
+        final LocalDate date = rows.get(rows.indexOf(items.get(0)) - WINDOW_SIZE / 2).getExpectedEndDate();
+        for (int i = 0; i < WINDOW_SIZE * 3; i++)
+            insert(date);
+
+        while (windows.canLoadPrev()) {
+            loadPrev();
+            assertItemsAreContiguous();
+        }
+        assertEquals(rows.get(0), items.get(0));
+    }
+
+    public void testReload() {
+        for (int i = 0; i < 5; i++)
+            loadNext();
+        rows.remove(rows.indexOf(items.get(3)));
+        insert(items.get(5).getExpectedEndDate());
+
+        final int limit = windows.reloadLimit();
+        final List<TodoJob> reloaded = fetch(windows.firstCursor(), limit);
+        windows.onReloaded(reloaded, limit);
+        items.clear();
+        items.addAll(reloaded);
+        assertEquals(windows.getLoadedRowCount(), items.size());
+        assertItemsAreContiguous();
+
+        while (windows.canLoadNext())
+            loadNext();
+        assertItemsAreContiguous();
+        assertEquals(rows.get(rows.size() - 1), items.get(items.size() - 1));
+    }
+
+    private void loadNext() {
+        final int limit = windows.nextLimit();
+        final List<TodoJob> window = fetch(windows.nextCursor(), limit);
+        windows.onNextLoaded(window, limit);
+        items.addAll(window);
+        items.subList(0, windows.evictFromTop()).clear();
+        assertEquals(windows.getLoadedRowCount(), items.size());
+    }
+
+    private void loadPrev() {
+        List<TodoJob> window;
+        do {
+            final int limit = windows.prevLimit();
+            window = windows.onPrevLoaded(fetch(windows.prevCursor(), limit), limit);
+        } while (window == null);
+        items.addAll(0, window);
+        final int evicted = windows.evictFromBottom();
+        items.subList(items.size() - evicted, items.size()).clear();
+        assertEquals(windows.getLoadedRowCount(), items.size());
+    }
+
+    private List<TodoJob> fetch(TodoJobCursor cursor, int limit) {
+        final List<TodoJob> page = new ArrayList<>();
+        for (TodoJob t : rows) {
+            if (page.size() < limit && (cursor == null || cursor.compareTo(TodoJobCursor.of(t)) < 0))
+                page.add(t);
+        }
+        return page;
+    }
+
+    private void insert(LocalDate expectedEndDate) {
+        final TodoJob t = new TodoJob("job " + nextId);
+        t.setId(nextId++);
+        t.setExpectedEndDate(expectedEndDate);
+        rows.add(t);
+        rows.sort((a, b) -> TodoJobCursor.of(a).compareTo(TodoJobCursor.of(b)));
+    }
+
+    private void assertItemsAreContiguous() {
+        final int from = rows.indexOf(items.get(0));
+        assertEquals(rows.subList(from, from + items.size()), items);
+    }
+}
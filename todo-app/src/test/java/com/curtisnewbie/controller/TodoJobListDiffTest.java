@@ -0,0 +1,110 @@
+package com.curtisnewbie.controller;
+
+import com.curtisnewbie.dao.TodoJob;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Verify that {@link TodoJobListDiff} only changes the list where the rows are inserted, removed or moved
+ *
+ * @author yongjie.zhuang
+ */
+public class TodoJobListDiffTest extends TestCase {
+
+    private ObservableList<TodoJob> items;
+    private int changes;
+
+    @Override
+    protected void setUp() {
+        items = FXCollections.observableArrayList(rows(1, 2, 3, 4, 5));
+        items.addListener((ListChangeListener<TodoJob>) c -> {
+            while (c.next())
+                changes++;
+        });
+    }
+
+    public void testChangedRowIsPatchedInPlace() {
+        final TodoJob third = items.get(2);
+        final List<TodoJob> loaded = rows(1, 2, 3, 4, 5);
+        loaded.get(2).setName("renamed");
+
+        final Set<TodoJob> patched = TodoJobListDiff.apply(items, loaded);
+        assertEquals(0, changes);
+        assertEquals(1, patched.size());
+        assertTrue(patched.contains(third));
+        assertSame(third, items.get(2));
+        assertEquals("renamed", third.getName());
+    }
+
+    public void testInsertedRemovedAndMovedRows() {
+        final List<TodoJob> before = new ArrayList<>(items);
+        final List<TodoJob> loaded = rows(6, 1, 3, 5, 2, 7);
+
+        TodoJobListDiff.apply(items, loaded);
+        assertEquals(loaded, items);
+        // 1, 3 and 5 keep their instances, 2 is moved, 4 is removed, 6 and 7 are inserted
+        assertSame(before.get(0), items.get(1));
+        assertSame(before.get(2), items.get(2));
+        assertSame(before.get(4), items.get(3));
+        assertEquals(4, changes);
+    }
+
+    public void testListIsReplacedIfNoRowIsKept() {
+        final List<TodoJob> loaded = rows(6, 7, 8);
+        TodoJobListDiff.apply(items, loaded);
+        assertEquals(loaded, items);
+        assertEquals(1, changes);
+    }
+
+    public void testRandomLists() {
+        final Random random = new Random(18);
+        for (int n = 0; n < 200; n++) {
+            final List<TodoJob> before = new ArrayList<>(items);
+            final List<Integer> ids = new ArrayList<>();
+            for (int id = 1; id <= 20; id++) {
+                if (random.nextInt(3) > 0)
+                    ids.add(id);
+            }
+            Collections.shuffle(ids, random);
+            final List<TodoJob> loaded = new ArrayList<>();
+            for (int id : ids)
+                loaded.add(row(id));
+
+            TodoJobListDiff.apply(items, loaded);
+            assertEquals(loaded, items);
+            for (TodoJob t : items) {
+                for (TodoJob b : before) {
+                    if (b == t)
+                        assertEquals(loaded.get(items.indexOf(t)).getId(), t.getId());
+                }
+            }
+        }
+    }
+
+    public void testLongestIncreasingSubsequence() {
+        final boolean[] lis = TodoJobListDiff.longestIncreasingSubsequence(new int[]{3, -1, 0, 4, 1, 2, -1, 5});
+        assertTrue(Arrays.equals(new boolean[]{false, false, true, false, true, true, false, true}, lis));
+    }
+
+    private static List<TodoJob> rows(int... ids) {
+        final List<TodoJob> rows = new ArrayList<>();
+        for (int id : ids)
+            rows.add(row(id));
+        return rows;
+    }
+
+    private static TodoJob row(int id) {
+        final TodoJob t = new TodoJob("job " + id);
+        t.setId(id);
+        return t;
+    }
+}
@@ -0,0 +1,178 @@
+package com.curtisnewbie.dao;
+
+import junit.framework.TestCase;
+import org.sqlite.SQLiteCommitListener;
+import org.sqlite.SQLiteConnection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Verify that {@link BatchingWriteExecutor} commits the queued writes at once, and rolls back the failed ones alone
+ *
+ * @author yongjie.zhuang
+ */
+public class BatchingWriteExecutorTest extends TestCase {
+
+    private Connection conn;
+    private final AtomicInteger commits = new AtomicInteger();
+
+    @Override
+    protected void setUp() throws Exception {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE t (v INTEGER NOT NULL)");
+        }
+        ((SQLiteConnection) conn).addCommitListener(new SQLiteCommitListener() {
+            @Override
+            public void onCommit() {
+                commits.incrementAndGet();
+            }
+
+            @Override
+            public void onRollback() {
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        conn.close();
+    }
+
+    public void testQueuedWritesAreCommittedAtOnce() throws Exception {
+        final BatchingWriteExecutor executor = new BatchingWriteExecutor(conn, 100, 500);
+        final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            futures.add(executor.submit(insert(i)));
+        for (int i = 0; i < 10; i++)
+            assertEquals(1, futures.get(i).join().intValue());
+
+        assertEquals(10, count());
+        assertEquals(1, commits.get());
+    }
+
+    public void testBatchIsLimitedByMaxBatchSize() throws Exception {
+        final BatchingWriteExecutor executor = new BatchingWriteExecutor(conn, 3, 500);
+        final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 9; i++)
+            futures.add(executor.submit(insert(i)));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertEquals(9, count());
+        assertEquals(3, commits.get());
+    }
+
+    public void testFailedWriteIsRolledBackAlone() throws Exception {
+        assertRolledBackAlone(new IllegalStateException("failed write"));
+    }
+
+    public void testWriteThrowingErrorIsRolledBackAlone() throws Exception {
+        assertRolledBackAlone(new AssertionError("failed write"));
+    }
+
+    public void testFailedCommitFailsWholeBatch() throws Exception {
+        final BatchingWriteExecutor executor = new BatchingWriteExecutor(conn, 100, 500);
+        final CompletableFuture<Integer> first = executor.submit(insert(1));
+        final CompletableFuture<Integer> second = executor.submit(() -> {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return 0;
+        });
+        assertFails(first, SQLException.class);
+        assertFails(second, SQLException.class);
+
+        // the writer thread survives the failed batch, the next one fails on the closed connection instead of hanging
+        final CompletableFuture<Integer> third = executor.submit(() -> 3);
+        assertFails(third, SQLException.class);
+    }
+
+    private void assertRolledBackAlone(Throwable failure) throws Exception {
+        final BatchingWriteExecutor executor = new BatchingWriteExecutor(conn, 100, 500);
+        final CompletableFuture<Integer> first = executor.submit(insert(1));
+        final CompletableFuture<Integer> failed = executor.submit(() -> {
+            insert(2).get();
+            if (failure instanceof Error)
+                throw (Error) failure;
+            throw (RuntimeException) failure;
+        });
+        final CompletableFuture<Integer> last = executor.submit(insert(3));
+
+        assertEquals(1, first.join().intValue());
+        assertEquals(1, last.join().intValue());
+        try {
+            failed.join();
+            fail("Failed write completed normally");
+        } catch (CompletionException e) {
+            assertSame(failure, e.getCause());
+        }
+        assertEquals(2, count());
+        assertEquals(0, count("v = 2"));
+        assertEquals(1, commits.get());
+    }
+
+    public void testTaskOutsideTransactionIsNotCommitted() throws Exception {
+        final BatchingWriteExecutor executor = new BatchingWriteExecutor(conn, 100, 2_000);
+        final CompletableFuture<Integer> write = executor.submit(insert(1));
+        final CompletableFuture<Boolean> task = executor.submitOutsideTransaction(() -> {
+            try {
+                return conn.getAutoCommit() && Thread.currentThread().getName().equals("todo-app-db-writer");
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // it doesn't wait for the batch window of the write queued before it
+        assertTrue(task.join());
+        assertFalse(write.isDone());
+        assertEquals(1, write.join().intValue());
+        assertEquals(1, commits.get());
+
+        assertFails(executor.submitOutsideTransaction(() -> {
+            throw new IllegalStateException("failed task");
+        }), IllegalStateException.class);
+        assertEquals(1, executor.submit(insert(2)).join().intValue());
+        assertEquals(2, count());
+    }
+
+    private Supplier<Integer> insert(int v) {
+        return () -> {
+            try (Statement stmt = conn.createStatement()) {
+                return stmt.executeUpdate("INSERT INTO t (v) VALUES (" + v + ")");
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private int count() throws SQLException {
+        return count("1 = 1");
+    }
+
+    private int count(String cond) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t WHERE " + cond)) {
+            return rs.getInt(1);
+        }
+    }
+
+    private static void assertFails(CompletableFuture<?> future, Class<? extends Throwable> cause) {
+        try {
+            future.join();
+            fail("Future completed normally");
+        } catch (CompletionException e) {
+            assertTrue(String.valueOf(e.getCause()), cause.isInstance(e.getCause()));
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.curtisnewbie.dao;
+
+import junit.framework.TestCase;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * Verify that {@link CachingTodoJobMapper} serves the same pages as the mapper it decorates, and only reloads the
+ * pages affected by a write
+ *
+ * @author yongjie.zhuang
+ */
+public class CachingTodoJobMapperTest extends TestCase {
+
+    private static final int PAGE_LIMIT = 5;
+
+    private InMemoryMapper delegate;
+    private CachingTodoJobMapper mapper;
+
+    @Override
+    protected void setUp() {
+        delegate = new InMemoryMapper();
+        final LocalDate today = LocalDate.of(2026, 10, 18);
+        for (int i = 0; i < 20; i++) {
+            TodoJob t = new TodoJob("job " + i);
+            t.setExpectedEndDate(today.plusDays(i));
+            delegate.insertAsync(t).join();
+        }
+        mapper = new CachingTodoJobMapper(delegate, 16, PAGE_LIMIT);
+    }
+
+    public void testPagesAreServedFromCache() {
+        final List<TodoJobCursor> cursors = loadAllPages();
+        final int queries = delegate.queries;
+        for (TodoJobCursor c : cursors)
+            mapper.findByCursorAsync(null, c).join();
+        assertEquals(queries, delegate.queries);
+        assertEquals(cursors.size(), mapper.size());
+        assertEquals(0.5, mapper.getHitRatio());
+    }
+
+    public void testRenamePatchesPageInPlace() {
+        final List<TodoJobCursor> cursors = loadAllPages();
+        final TodoJob t = mapper.findByCursorAsync(null, cursors.get(1)).join().get(2);
+        t.setName("renamed");
+        assertTrue(mapper.updateByIdAsync(t).join());
+
+        final int queries = delegate.queries;
+        for (TodoJobCursor c : cursors)
+            mapper.findByCursorAsync(null, c).join();
+        assertEquals(queries, delegate.queries);
+        assertEquals("renamed", mapper.findByCursorAsync(null, cursors.get(1)).join().get(2).getName());
+        assertPagesAreUpToDate(cursors);
+    }
+
+    public void testMovedRowOnlyReloadsAffectedPages() {
+        final List<TodoJobCursor> cursors = loadAllPages();
+        // moves from the second page to the last one, the first page is not affected
+        final TodoJob t = mapper.findByCursorAsync(null, cursors.get(1)).join().get(0);
+        t.setDone(true);
+        t.setActualEndDate(t.getExpectedEndDate());
+        assertTrue(mapper.updateByIdAsync(t).join());
+
+        final int queries = delegate.queries;
+        mapper.findByCursorAsync(null, cursors.get(0)).join();
+        assertEquals(queries, delegate.queries);
+        assertPagesAreUpToDate(loadAllPages());
+    }
+
+    public void testInsertAndDelete() {
+        final List<TodoJobCursor> cursors = loadAllPages();
+        final TodoJob t = new TodoJob("new job");
+        t.setExpectedEndDate(LocalDate.of(2026, 10, 18).plusDays(12));
+        final int id = mapper.insertAsync(t).join();
+        assertPagesAreUpToDate(cursors);
+
+        assertTrue(mapper.deleteByIdAsync(id).join());
+        assertTrue(mapper.deleteByIdAsync(1).join());
+        assertPagesAreUpToDate(cursors);
+        assertPagesAreUpToDate(loadAllPages());
+    }
+
+    public void testPagesOfOtherLimit() {
+        final List<TodoJob> first = mapper.findByCursorAsync(null, null, 8).join();
+        assertEquals(8, first.size());
+        final TodoJobCursor cursor = TodoJobCursor.of(first.get(7));
+        mapper.findByCursorAsync(null, cursor, 8).join();
+        assertEquals(2, mapper.size());
+
+        // the new row sorts right after the last row of the first page, only the second page covers it
+        final TodoJob t = new TodoJob("new job");
+        t.setExpectedEndDate(first.get(7).getExpectedEndDate());
+        mapper.insertAsync(t).join();
+        assertEquals(1, mapper.size());
+        assertEquals(delegate.findByCursorAsync(null, null, 8).join(), mapper.findByCursorAsync(null, null, 8).join());
+        assertEquals(delegate.findByCursorAsync(null, cursor, 8).join(), mapper.findByCursorAsync(null, cursor, 8).join());
+    }
+
+    public void testPrefetch() {
+        mapper.prefetchByCursorAsync(null, null).join();
+        mapper.findByCursorAsync(null, null).join();
+        assertEquals(1, delegate.queries);
+        assertEquals(1, mapper.getHitCount());
+
+        // a page being loaded is dropped and its query is cancelled when no one is waiting for it
+        final CompletableFuture<List<TodoJob>> query = delegate.pending = new CompletableFuture<>();
+        final CompletableFuture<Void> prefetch = mapper.prefetchByCursorAsync("job", null);
+        final CompletableFuture<List<TodoJob>> find = mapper.findByCursorAsync("job", null);
+        assertEquals(2, mapper.size());
+        prefetch.cancel(false);
+        assertFalse(query.isCancelled());
+        find.cancel(false);
+        assertTrue(query.isCancelled());
+        assertEquals(1, mapper.size());
+
+        // the page is still delivered to the ones waiting for it
+        delegate.pending = new CompletableFuture<>();
+        final CompletableFuture<Void> another = mapper.prefetchByCursorAsync("job", null);
+        final CompletableFuture<List<TodoJob>> page = mapper.findByCursorAsync("job", null);
+        another.cancel(false);
+        delegate.pending.complete(new ArrayList<>());
+        assertTrue(page.join().isEmpty());
+    }
+
+    public void testPageLoadedDuringWriteIsNotCached() {
+        final List<TodoJobCursor> cursors = loadAllPages();
+        final TodoJob t = mapper.findByCursorAsync(null, cursors.get(1)).join().get(2);
+        t.setName("renamed");
+        delegate.heldUpdates = new ArrayList<>();
+        final CompletableFuture<Boolean> update = mapper.updateByIdAsync(t);
+
+        // the write is committed, but its future is not completed yet
+        mapper.clear();
+        int queries = delegate.queries;
+        assertEquals("renamed", mapper.findByCursorAsync(null, cursors.get(1)).join().get(2).getName());
+        assertEquals(queries + 1, delegate.queries);
+        assertEquals(0, mapper.size());
+
+        delegate.heldUpdates.get(0).complete(true);
+        assertTrue(update.join());
+        queries = delegate.queries;
+        mapper.findByCursorAsync(null, cursors.get(1)).join();
+        mapper.findByCursorAsync(null, cursors.get(1)).join();
+        assertEquals(queries + 1, delegate.queries);
+    }
+
+    public void testWritesSeenOutOfOrderAreNotPatched() {
+        final List<TodoJobCursor> cursors = loadAllPages();
+        final TodoJob t = mapper.findByCursorAsync(null, cursors.get(1)).join().get(2);
+        delegate.heldUpdates = new ArrayList<>();
+        t.setName("first");
+        final CompletableFuture<Boolean> first = mapper.updateByIdAsync(t);
+        t.setName("second");
+        final CompletableFuture<Boolean> second = mapper.updateByIdAsync(t);
+
+        // committed in order, but completed in reverse
+        delegate.heldUpdates.get(1).complete(true);
+        delegate.heldUpdates.get(0).complete(true);
+        assertTrue(first.join() && second.join());
+        assertEquals("second", mapper.findByCursorAsync(null, cursors.get(1)).join().get(2).getName());
+        assertPagesAreUpToDate(cursors);
+    }
+
+    public void testChangesOfOthersEvictPages() {
+        final List<TodoJobCursor> cursors = loadAllPages();
+        // a row deleted by others only evicts the page holding it
+        final TodoJob deleted = mapper.findByCursorAsync(null, cursors.get(1)).join().get(0);
+        delegate.rows.removeIf(t -> t.getId().equals(deleted.getId()));
+        delegate.publish(new TodoJobChange(TodoJobChange.Type.DELETE, deleted.getId()));
+        int queries = delegate.queries;
+        mapper.findByCursorAsync(null, cursors.get(0)).join();
+        mapper.findByCursorAsync(null, cursors.get(1)).join();
+        assertEquals(queries + 1, delegate.queries);
+        assertPagesAreUpToDate(cursors);
+
+        // changes of others published while a write of this mapper is in flight are handled once it completes
+        final TodoJob updated = mapper.findByCursorAsync(null, cursors.get(2)).join().get(0);
+        updated.setName("renamed");
+        delegate.heldUpdates = new ArrayList<>();
+        final CompletableFuture<Boolean> update = mapper.updateByIdAsync(updated);
+        final TodoJob moved = new TodoJob(mapper.findByCursorAsync(null, cursors.get(0)).join().get(0));
+        moved.setExpectedEndDate(moved.getExpectedEndDate().plusDays(30));
+        delegate.rows.removeIf(t -> t.getId().equals(moved.getId()));
+        delegate.rows.add(moved);
+        delegate.publish(new TodoJobChange(TodoJobChange.Type.UPDATE, moved.getId()));
+        assertTrue(mapper.size() > 0);
+        delegate.heldUpdates.get(0).complete(true);
+        assertTrue(update.join());
+        assertEquals(0, mapper.size());
+        assertPagesAreUpToDate(loadAllPages());
+    }
+
+    public void testOwnChangesAreNotTakenAsOthers() {
+        final List<TodoJobCursor> cursors = loadAllPages();
+        final TodoJob t = new TodoJob("new job");
+        t.setExpectedEndDate(LocalDate.of(2026, 10, 18).plusDays(40));
+        mapper.insertAsync(t).join();
+        mapper.deleteByIdAsync(1).join();
+        final int size = mapper.size();
+        assertTrue(size > 1);
+        final int queries = delegate.queries;
+        mapper.findByCursorAsync(null, cursors.get(1)).join();
+        assertEquals(queries, delegate.queries);
+
+        delegate.publish(TodoJobChange.EXTERNAL);
+        assertEquals(0, mapper.size());
+    }
+
+    public void testListenersSeeTheChangesWhenReloading() {
+        final List<TodoJobCursor> cursors = loadAllPages();
+        final List<List<TodoJob>> reloaded = new ArrayList<>();
+        mapper.addChangeListener(changes -> reloaded.add(mapper.findByCursorAsync(null, null).join()));
+
+        final TodoJob t = new TodoJob("new job");
+        t.setExpectedEndDate(LocalDate.of(2026, 10, 1));
+        final int id = mapper.insertAsync(t).join();
+        assertEquals(1, reloaded.size());
+        assertEquals(id, reloaded.get(0).get(0).getId().intValue());
+
+        assertTrue(mapper.deleteByIdAsync(id).join());
+        assertEquals(2, reloaded.size());
+        assertEquals(delegate.findByCursorAsync(null, null).join(), reloaded.get(1));
+
+        // delivered once the write in flight completes
+        delegate.heldUpdates = new ArrayList<>();
+        final TodoJob renamed = mapper.findByCursorAsync(null, cursors.get(0)).join().get(0);
+        renamed.setName("renamed");
+        final CompletableFuture<Boolean> update = mapper.updateByIdAsync(renamed);
+        assertEquals(2, reloaded.size());
+        delegate.heldUpdates.get(0).complete(true);
+        assertTrue(update.join());
+        assertEquals(3, reloaded.size());
+        assertEquals("renamed", reloaded.get(2).get(0).getName());
+    }
+
+    private List<TodoJobCursor> loadAllPages() {
+        final List<TodoJobCursor> cursors = new ArrayList<>();
+        TodoJobCursor cursor = null;
+        List<TodoJob> page;
+        do {
+            cursors.add(cursor);
+            page = mapper.findByCursorAsync(null, cursor).join();
+            if (!page.isEmpty())
+                cursor = TodoJobCursor.of(page.get(page.size() - 1));
+        } while (page.size() == PAGE_LIMIT);
+        return cursors;
+    }
+
+    private void assertPagesAreUpToDate(List<TodoJobCursor> cursors) {
+        for (TodoJobCursor c : cursors)
+            assertEquals(delegate.findByCursorAsync(null, c).join(), mapper.findByCursorAsync(null, c).join());
+    }
+
+    /**
+     * Mapper that keeps the records in a list, sorted in the same way as the database does
+     */
+    private static class InMemoryMapper implements TodoJobMapper {
+
+        private final List<TodoJob> rows = new ArrayList<>();
+        private int nextId = 1;
+        private int queries = 0;
+        /** returned by the next queries if not null */
+        private CompletableFuture<List<TodoJob>> pending;
+        /** if not null, updates are applied at once, but their futures are added here to be completed by the test */
+        private List<CompletableFuture<Boolean>> heldUpdates;
+        /** listeners of the changes, which are published before the futures complete, as the database does */
+        private final List<TodoJobChangeListener> listeners = new ArrayList<>();
+
+        private void publish(TodoJobChange... changes) {
+            for (TodoJobChangeListener l : listeners)
+                l.onChanged(Collections.unmodifiableList(Arrays.asList(changes)));
+        }
+
+        @Override
+        public void addChangeListener(TodoJobChangeListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public CompletableFuture<List<TodoJob>> findByCursorAsync(String name, TodoJobCursor cursor) {
+            return findByCursorAsync(name, cursor, PAGE_LIMIT);
+        }
+
+        @Override
+        public CompletableFuture<List<TodoJob>> findByCursorAsync(String name, TodoJobCursor cursor, int limit) {
+            queries++;
+            if (pending != null)
+                return pending;
+            rows.sort((a, b) -> TodoJobCursor.of(a).compareTo(TodoJobCursor.of(b)));
+            final List<TodoJob> page = new ArrayList<>();
+            for (TodoJob t : rows) {
+                if (page.size() < limit && (cursor == null || cursor.compareTo(TodoJobCursor.of(t)) < 0))
+                    page.add(new TodoJob(t));
+            }
+            return CompletableFuture.completedFuture(page);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> updateByIdAsync(TodoJob todoJob) {
+            final boolean deleted = rows.removeIf(t -> t.getId().equals(todoJob.getId()));
+            if (deleted) {
+                rows.add(new TodoJob(todoJob));
+                publish(new TodoJobChange(TodoJobChange.Type.UPDATE, todoJob.getId()));
+            }
+            if (heldUpdates != null) {
+                final CompletableFuture<Boolean> held = new CompletableFuture<>();
+                heldUpdates.add(held);
+                return held;
+            }
+            return CompletableFuture.completedFuture(deleted);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> deleteByIdAsync(int id) {
+            final boolean deleted = rows.removeIf(t -> t.getId() == id);
+            if (deleted)
+                publish(new TodoJobChange(TodoJobChange.Type.DELETE, id));
+            return CompletableFuture.completedFuture(deleted);
+        }
+
+        @Override
+        public CompletableFuture<Integer> insertAsync(TodoJob todoJob) {
+            final TodoJob t = new TodoJob(todoJob);
+            t.setId(nextId++);
+            t.setActualEndDate(null);
+            rows.add(t);
+            publish(new TodoJobChange(TodoJobChange.Type.INSERT, t.getId()));
+            return CompletableFuture.completedFuture(t.getId());
+        }
+
+        @Override
+        public CompletableFuture<List<TodoJob>> findByPageAsync(String name, int page) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<List<TodoJob>> findBetweenDatesAsync(String name, LocalDate startDate, LocalDate endDate) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Integer> findBetweenDatesAsync(String name, LocalDate startDate, LocalDate endDate,
+                                                                Predicate<TodoJob> consumer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<LocalDate> findEarliestDateAsync() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<LocalDate> findLatestDateAsync() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<List<Integer>> insertAllAsync(List<TodoJob> todoJobs) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<List<Boolean>> updateAllAsync(List<TodoJob> todoJobs) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<List<Boolean>> deleteByIdsAsync(int[] ids) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
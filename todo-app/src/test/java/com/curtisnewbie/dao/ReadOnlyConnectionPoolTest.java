@@ -0,0 +1,83 @@
+package com.curtisnewbie.dao;
+
+import junit.framework.TestCase;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Verify that {@link ReadOnlyConnectionPool} lends each connection exclusively, and the connections are read-only
+ *
+ * @author yongjie.zhuang
+ */
+public class ReadOnlyConnectionPoolTest extends TestCase {
+
+    private TestDatabase db;
+
+    @Override
+    protected void setUp() throws Exception {
+        db = new TestDatabase(2);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        db.close();
+    }
+
+    public void testBorrowWaitsForRelease() throws Exception {
+        final ReadOnlyConnectionPool.Lease a = db.readers.borrow();
+        final ReadOnlyConnectionPool.Lease b = db.readers.borrow();
+        assertNotSame(a.get(), b.get());
+
+        final CompletableFuture<ReadOnlyConnectionPool.Lease> c = CompletableFuture.supplyAsync(db.readers::borrow);
+        try {
+            c.get(200, TimeUnit.MILLISECONDS);
+            fail("Borrowed while all connections are lent");
+        } catch (TimeoutException expected) {
+        }
+        a.close();
+        assertSame(a.get(), c.get(5, TimeUnit.SECONDS).get());
+        b.close();
+        c.join().close();
+    }
+
+    public void testLeaseIsReleasedOnlyOnce() {
+        final ReadOnlyConnectionPool.Lease a = db.readers.borrow();
+        a.close();
+        a.close();
+        try (ReadOnlyConnectionPool.Lease b = db.readers.borrow();
+             ReadOnlyConnectionPool.Lease c = db.readers.borrow()) {
+            // if the lease was released twice, the same connection would be lent twice
+            assertNotSame(b.get(), c.get());
+        }
+    }
+
+    public void testConnectionsAreReadOnly() {
+        try (ReadOnlyConnectionPool.Lease lease = db.readers.borrow();
+             Statement stmt = lease.get().getConnection().createStatement()) {
+            stmt.executeUpdate("INSERT INTO todojob (name, is_done, expected_end_date) VALUES ('x', 0, 0)");
+            fail("Inserted through read-only connection");
+        } catch (SQLException expected) {
+        }
+    }
+
+    public void testCursorPageEndsReadTransaction() throws Exception {
+        final TodoJobMapper mapper = new TodoJobMapperImpl(db.writer, new BatchingWriteExecutor(db.conn, 100, 0),
+                db.readers);
+        final TodoJob t = new TodoJob("buy milk");
+        t.setExpectedEndDate(LocalDate.of(2026, 10, 18));
+        mapper.insertAsync(t).join();
+
+        final TodoJob first = mapper.findByCursorAsync(null, null, 1).join().get(0);
+        assertTrue(mapper.findByCursorAsync(null, TodoJobCursor.of(first), 1).join().isEmpty());
+        for (int i = 0; i < 2; i++) {
+            try (ReadOnlyConnectionPool.Lease lease = db.readers.borrow()) {
+                assertTrue(lease.get().getConnection().getAutoCommit());
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.curtisnewbie.dao;
+
+import junit.framework.TestCase;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+
+/**
+ * Verify the hits, misses and eviction of {@link StatementCache}
+ *
+ * @author yongjie.zhuang
+ */
+public class StatementCacheTest extends TestCase {
+
+    private Connection conn;
+    private StatementCache cache;
+
+    @Override
+    protected void setUp() throws Exception {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        cache = new StatementCache(conn, 2);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        cache.clear();
+        conn.close();
+    }
+
+    public void testStatementIsReused() throws Exception {
+        final PreparedStatement first;
+        try (StatementCache.CachedStatement cs = cache.prepare("SELECT ?")) {
+            first = cs.get();
+            first.setInt(1, 1);
+        }
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+
+        try (StatementCache.CachedStatement cs = cache.prepare("SELECT ?")) {
+            assertSame(first, cs.get());
+            assertEquals(0, cache.size());
+        }
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    public void testStatementLentIsNotShared() throws Exception {
+        try (StatementCache.CachedStatement a = cache.prepare("SELECT 1");
+             StatementCache.CachedStatement b = cache.prepare("SELECT 1")) {
+            assertNotSame(a.get(), b.get());
+        }
+        assertEquals(2, cache.getMissCount());
+        // only one of them is kept
+        assertEquals(1, cache.size());
+    }
+
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        final PreparedStatement s1 = lendAndRelease("SELECT 1");
+        final PreparedStatement s2 = lendAndRelease("SELECT 2");
+        // SELECT 1 is used again, so SELECT 2 is the least recently used
+        assertSame(s1, lendAndRelease("SELECT 1"));
+        lendAndRelease("SELECT 3");
+
+        assertEquals(2, cache.size());
+        assertTrue(s2.isClosed());
+        assertFalse(s1.isClosed());
+        assertNotSame(s2, lendAndRelease("SELECT 2"));
+    }
+
+    public void testDiscardedStatementIsClosed() throws Exception {
+        final PreparedStatement stmt;
+        try (StatementCache.CachedStatement cs = cache.prepare("SELECT 1")) {
+            stmt = cs.get();
+            cs.discard();
+        }
+        assertTrue(stmt.isClosed());
+        assertEquals(0, cache.size());
+    }
+
+    private PreparedStatement lendAndRelease(String sql) throws Exception {
+        try (StatementCache.CachedStatement cs = cache.prepare(sql)) {
+            return cs.get();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.curtisnewbie.dao;
+
+import com.curtisnewbie.dao.script.CreateFullTextIndexScript;
+import com.curtisnewbie.dao.script.CreateIndexScript;
+import com.curtisnewbie.dao.script.InitialiseScript;
+import com.curtisnewbie.dao.script.MigrateToEpochDayScript;
+import com.curtisnewbie.dao.script.ScriptRunner;
+import com.curtisnewbie.dao.script.SimpleScriptRunner;
+import org.sqlite.SQLiteConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Database in a temporary file for tests, set up the same way as {@link MapperFactoryBase} does
+ *
+ * @author yongjie.zhuang
+ */
+public final class TestDatabase implements AutoCloseable {
+
+    public final File file;
+    /** the writer connection */
+    public final Connection conn;
+    public final StatementCache writer;
+    public final ReadOnlyConnectionPool readers;
+
+    /**
+     * @param readerCount number of read-only connections
+     */
+    public TestDatabase(int readerCount) throws IOException, SQLException {
+        file = File.createTempFile("todo-app-test", ".db");
+        final SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        conn = DriverManager.getConnection(url(), config.toProperties());
+        final ScriptRunner runner = new SimpleScriptRunner();
+        new InitialiseScript().preInitialize(runner, conn);
+        new CreateIndexScript().preInitialize(runner, conn);
+        new CreateFullTextIndexScript().preInitialize(runner, conn);
+        new MigrateToEpochDayScript().preInitialize(runner, conn);
+        writer = new StatementCache(conn, 8);
+        readers = new ReadOnlyConnectionPool(url(), readerCount, 8, 1000);
+    }
+
+    public String url() {
+        return "jdbc:sqlite:" + file.getAbsolutePath();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        readers.close();
+        writer.clear();
+        conn.close();
+        file.delete();
+        new File(file.getAbsolutePath() + "-wal").delete();
+        new File(file.getAbsolutePath() + "-shm").delete();
+    }
+}
@@ -0,0 +1,116 @@
+package com.curtisnewbie.dao;
+
+import com.curtisnewbie.dao.script.InitialiseScript;
+import com.curtisnewbie.dao.script.SimpleScriptRunner;
+import junit.framework.TestCase;
+import org.sqlite.SQLiteConfig;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verify that {@link TodoJobChangeNotifier} publishes the committed changes, and notices the ones of other connections
+ *
+ * @author yongjie.zhuang
+ */
+public class TodoJobChangeNotifierTest extends TestCase {
+
+    private File dbFile;
+    private Connection conn;
+    private TodoJobChangeNotifier notifier;
+    private BatchingWriteExecutor writeExecutor;
+    private ReadOnlyConnectionPool readers;
+    private TodoJobMapper mapper;
+    private final BlockingQueue<List<TodoJobChange>> published = new LinkedBlockingQueue<>();
+
+    @Override
+    protected void setUp() throws Exception {
+        dbFile = File.createTempFile("todo-app-change", ".db");
+        final SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        conn = DriverManager.getConnection(url(), config.toProperties());
+        new InitialiseScript().preInitialize(new SimpleScriptRunner(), conn);
+
+        notifier = new TodoJobChangeNotifier(conn);
+        writeExecutor = new BatchingWriteExecutor(conn, 100, 0, notifier);
+        readers = new ReadOnlyConnectionPool(url(), 1, 8, 1000);
+        mapper = new TodoJobMapperImpl(new StatementCache(conn, 8), writeExecutor, readers, notifier);
+        mapper.addChangeListener(published::add);
+        notifier.start(writeExecutor);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        notifier.close();
+        readers.close();
+        conn.close();
+        dbFile.delete();
+    }
+
+    public void testCommittedChangesArePublished() throws Exception {
+        final TodoJob t = new TodoJob("buy milk");
+        t.setExpectedEndDate(LocalDate.of(2026, 10, 18));
+        final int id = mapper.insertAsync(t).join();
+        assertEquals(Collections.singletonList(new TodoJobChange(TodoJobChange.Type.INSERT, id)), next());
+
+        t.setId(id);
+        t.setName("buy bread");
+        assertTrue(mapper.updateByIdAsync(t).join());
+        assertEquals(Collections.singletonList(new TodoJobChange(TodoJobChange.Type.UPDATE, id)), next());
+
+        assertTrue(mapper.deleteByIdAsync(id).join());
+        assertEquals(Collections.singletonList(new TodoJobChange(TodoJobChange.Type.DELETE, id)), next());
+    }
+
+    public void testChangesRolledBackAreDropped() throws Exception {
+        try {
+            writeExecutor.submit(() -> {
+                execute("INSERT INTO todojob (name, is_done, expected_end_date) VALUES ('rolled back', 0, 0)");
+                throw new IllegalStateException("fail");
+            }).join();
+            fail();
+        } catch (RuntimeException expected) {
+        }
+        final int id = writeExecutor.submit(() -> {
+            execute("INSERT INTO todojob (name, is_done, expected_end_date) VALUES ('committed', 0, 0)");
+            return 0;
+        }).thenCompose(ignored -> mapper.findByPageAsync(null, 1)).join().get(0).getId();
+        assertEquals(Collections.singletonList(new TodoJobChange(TodoJobChange.Type.INSERT, id)), next());
+    }
+
+    public void testChangesOfOtherConnectionsAreNoticed() throws Exception {
+        try (Connection other = DriverManager.getConnection(url());
+             Statement stmt = other.createStatement()) {
+            stmt.executeUpdate("INSERT INTO todojob (name, is_done, expected_end_date) VALUES ('external', 0, 0)");
+        }
+        assertEquals(Arrays.asList(TodoJobChange.EXTERNAL), next());
+    }
+
+    private List<TodoJobChange> next() throws InterruptedException {
+        final List<TodoJobChange> changes = published.poll(10, TimeUnit.SECONDS);
+        assertNotNull("No change is published", changes);
+        return changes;
+    }
+
+    private void execute(String sql) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String url() {
+        return "jdbc:sqlite:" + dbFile.getAbsolutePath();
+    }
+}
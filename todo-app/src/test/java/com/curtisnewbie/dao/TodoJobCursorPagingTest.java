@@ -0,0 +1,110 @@
+package com.curtisnewbie.dao;
+
+import junit.framework.TestCase;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Verify that paging by cursor in {@link TodoJobMapperImpl} walks all rows in sort order without gaps or duplicates,
+ * when many rows share the same sort key
+ *
+ * @author yongjie.zhuang
+ */
+public class TodoJobCursorPagingTest extends TestCase {
+
+    private static final LocalDate START = LocalDate.of(2026, 10, 1);
+    private static final int ROWS = 200;
+
+    private TestDatabase db;
+    private TodoJobMapper mapper;
+
+    @Override
+    protected void setUp() throws Exception {
+        db = new TestDatabase(1);
+        mapper = new TodoJobMapperImpl(db.writer, new BatchingWriteExecutor(db.conn, 100, 0), db.readers);
+
+        // few distinct values, so there are lots of ties in is_done, actual_end_date and expected_end_date
+        final Random random = new Random(1);
+        final List<TodoJob> jobs = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            final TodoJob t = new TodoJob((i % 3 == 0 ? "buy milk " : "write code ") + i);
+            t.setExpectedEndDate(START.plusDays(random.nextInt(3)));
+            if (random.nextBoolean()) {
+                t.setDone(true);
+                if (random.nextBoolean())
+                    t.setActualEndDate(START.plusDays(random.nextInt(2)));
+            } else if (random.nextInt(4) == 0) {
+                t.setActualEndDate(START.plusDays(random.nextInt(2)));
+            }
+            jobs.add(t);
+        }
+        mapper.insertAllAsync(jobs).join();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        db.close();
+    }
+
+    public void testCursorPagesHaveNoGapOrDuplicate() {
+        for (int limit : new int[]{1, 7, TodoJobMapperImpl.DEFAULT_PAGE_LIMIT, ROWS + 1})
+            assertSameRows(walkByCursor(null, limit), walkByOffset(null));
+    }
+
+    public void testCursorPagesOfSearch() {
+        for (String name : new String[]{"milk", "code 1"}) {
+            for (int limit : new int[]{1, 7})
+                assertSameRows(walkByCursor(name, limit), walkByOffset(name));
+        }
+    }
+
+    /**
+     * Cursor pages are ordered by the full sort key including id, the offset pages don't sort by id, so only the sort
+     * keys without id are compared in order, and the ids are compared as sets
+     */
+    private static void assertSameRows(List<TodoJob> byCursor, List<TodoJob> byOffset) {
+        assertEquals(byOffset.size(), byCursor.size());
+        final Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < byCursor.size(); i++) {
+            final TodoJob c = byCursor.get(i), o = byOffset.get(i);
+            assertTrue("Duplicate row " + c.getId(), ids.add(c.getId()));
+            assertEquals(o.isDone(), c.isDone());
+            assertEquals(o.getActualEndDate(), c.getActualEndDate());
+            assertEquals(o.getExpectedEndDate(), c.getExpectedEndDate());
+            if (i > 0)
+                assertTrue(TodoJobCursor.of(byCursor.get(i - 1)).compareTo(TodoJobCursor.of(c)) < 0);
+        }
+        final Set<Integer> offsetIds = new HashSet<>();
+        for (TodoJob t : byOffset)
+            offsetIds.add(t.getId());
+        assertEquals(offsetIds, ids);
+    }
+
+    private List<TodoJob> walkByCursor(String name, int limit) {
+        final List<TodoJob> rows = new ArrayList<>();
+        TodoJobCursor cursor = null;
+        while (true) {
+            final List<TodoJob> page = mapper.findByCursorAsync(name, cursor, limit).join();
+            assertTrue(page.size() <= limit);
+            rows.addAll(page);
+            if (page.size() < limit)
+                return rows;
+            cursor = TodoJobCursor.of(page.get(page.size() - 1));
+        }
+    }
+
+    private List<TodoJob> walkByOffset(String name) {
+        final List<TodoJob> rows = new ArrayList<>();
+        for (int page = 1; ; page++) {
+            final List<TodoJob> p = mapper.findByPageAsync(name, page).join();
+            rows.addAll(p);
+            if (p.size() < TodoJobMapperImpl.DEFAULT_PAGE_LIMIT)
+                return rows;
+        }
+    }
+}
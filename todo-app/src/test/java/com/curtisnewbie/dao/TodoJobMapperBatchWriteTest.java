@@ -0,0 +1,82 @@
+package com.curtisnewbie.dao;
+
+import junit.framework.TestCase;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Verify that a failed batch write in {@link TodoJobMapperImpl} leaves nothing behind for the next one
+ *
+ * @author yongjie.zhuang
+ */
+public class TodoJobMapperBatchWriteTest extends TestCase {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 10, 18);
+
+    private TestDatabase db;
+    private TodoJobMapper mapper;
+    private TodoJob first;
+    private TodoJob second;
+
+    @Override
+    protected void setUp() throws Exception {
+        db = new TestDatabase(1);
+        mapper = new TodoJobMapperImpl(db.writer, new BatchingWriteExecutor(db.conn, 100, 0), db.readers);
+        first = newTodoJob("first");
+        second = newTodoJob("second");
+        final List<Integer> ids = mapper.insertAllAsync(Arrays.asList(first, second)).join();
+        first.setId(ids.get(0));
+        second.setId(ids.get(1));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        db.close();
+    }
+
+    public void testFailedUpdateIsNotReplayed() {
+        first.setName("first renamed");
+        assertFails(mapper.updateAllAsync(Arrays.asList(first, newTodoJob("without id"))));
+
+        second.setName("second renamed");
+        assertEquals(Collections.singletonList(true), mapper.updateAllAsync(Collections.singletonList(second)).join());
+        assertEquals(Arrays.asList("first", "second renamed"), names());
+    }
+
+    public void testFailedInsertIsNotReplayed() {
+        final TodoJob withoutDate = newTodoJob("without date");
+        withoutDate.setExpectedEndDate(null);
+        assertFails(mapper.insertAllAsync(Arrays.asList(newTodoJob("third"), withoutDate)));
+
+        assertEquals(1, mapper.insertAllAsync(Collections.singletonList(newTodoJob("fourth"))).join().size());
+        assertEquals(Arrays.asList("first", "second", "fourth"), names());
+    }
+
+    private List<String> names() {
+        final List<TodoJob> jobs = mapper.findBetweenDatesAsync(null, DATE, DATE).join();
+        final String[] names = new String[jobs.size()];
+        jobs.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        for (int i = 0; i < names.length; i++)
+            names[i] = jobs.get(i).getName();
+        return Arrays.asList(names);
+    }
+
+    private static TodoJob newTodoJob(String name) {
+        final TodoJob t = new TodoJob(name);
+        t.setExpectedEndDate(DATE);
+        return t;
+    }
+
+    private static void assertFails(CompletableFuture<?> future) {
+        try {
+            future.join();
+            fail("Write completed normally");
+        } catch (CompletionException expected) {
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.curtisnewbie.dao;
+
+import com.curtisnewbie.dao.script.CreateFullTextIndexScript;
+import com.curtisnewbie.dao.script.CreateIndexScript;
+import com.curtisnewbie.dao.script.InitialiseScript;
+import com.curtisnewbie.dao.script.MigrateToEpochDayScript;
+import com.curtisnewbie.dao.script.ScriptRunner;
+import com.curtisnewbie.dao.script.SimpleScriptRunner;
+import junit.framework.TestCase;
+import org.sqlite.SQLiteConfig;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.test.StepVerifier;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verify that the fluxes of {@link TodoJobMapperImpl} stream the same rows as the futures, and release the connection
+ * when they are cancelled
+ *
+ * @author yongjie.zhuang
+ */
+public class TodoJobMapperFluxTest extends TestCase {
+
+    private static final LocalDate START = LocalDate.of(2026, 10, 1);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private File dbFile;
+    private Connection conn;
+    private ReadOnlyConnectionPool readers;
+    private TodoJobMapper mapper;
+
+    @Override
+    protected void setUp() throws Exception {
+        dbFile = File.createTempFile("todo-app-flux", ".db");
+        final String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
+        final SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        conn = DriverManager.getConnection(url, config.toProperties());
+        ScriptRunner runner = new SimpleScriptRunner();
+        new InitialiseScript().preInitialize(runner, conn);
+        new CreateIndexScript().preInitialize(runner, conn);
+        new CreateFullTextIndexScript().preInitialize(runner, conn);
+        new MigrateToEpochDayScript().preInitialize(runner, conn);
+
+        // a single reader, so a connection that is not released blocks the next query
+        readers = new ReadOnlyConnectionPool(url, 1, 8, 1000);
+        mapper = new TodoJobMapperImpl(new StatementCache(conn, 8), new BatchingWriteExecutor(conn, 100, 0), readers);
+
+        final List<TodoJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final TodoJob t = new TodoJob((i % 2 == 0 ? "buy milk " : "write code ") + i);
+            t.setExpectedEndDate(START.plusDays(i % 20));
+            jobs.add(t);
+        }
+        mapper.insertAllAsync(jobs).join();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        readers.close();
+        conn.close();
+        dbFile.delete();
+    }
+
+    public void testFluxesEmitSameRowsAsFutures() {
+        final LocalDate end = START.plusDays(9);
+        assertEquals(mapper.findBetweenDatesAsync(null, START, end).join(),
+                mapper.findBetweenDatesFlux(null, START, end).collectList().block(TIMEOUT));
+        assertEquals(mapper.findBetweenDatesAsync("milk", START, end).join(),
+                mapper.findBetweenDatesFlux("milk", START, end).collectList().block(TIMEOUT));
+        assertEquals(mapper.findByPageAsync(null, 2).join(),
+                mapper.findByPageFlux(null, 2).collectList().block(TIMEOUT));
+        assertEquals(mapper.findByPageAsync("code", 1).join(),
+                mapper.findByPageFlux("code", 1).collectList().block(TIMEOUT));
+    }
+
+    public void testRowsAreEmittedAsRequested() {
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(mapper.findBetweenDatesFlux(null, START, START.plusDays(19)), 2)
+                    .expectNextCount(2)
+                    .thenRequest(3)
+                    .expectNextCount(3)
+                    .thenCancel()
+                    .verify(TIMEOUT);
+        }
+        // the connection is released after each cancellation
+        assertEquals(40, (long) mapper.findBetweenDatesFlux(null, START, START.plusDays(19)).count().block(TIMEOUT));
+    }
+
+    public void testStreamsLeaveOneConnectionForOtherQueries() throws Exception {
+        final ReadOnlyConnectionPool twoReaders = new ReadOnlyConnectionPool("jdbc:sqlite:" + dbFile.getAbsolutePath(),
+                2, 8, 1000);
+        try {
+            final TodoJobMapper m = new TodoJobMapperImpl(new StatementCache(conn, 8),
+                    new BatchingWriteExecutor(conn, 100, 0), twoReaders);
+            final LocalDate end = START.plusDays(19);
+            final CountDownLatch received = new CountDownLatch(1);
+            final BaseSubscriber<TodoJob> slow = new BaseSubscriber<TodoJob>() {
+                @Override
+                protected void hookOnSubscribe(Subscription subscription) {
+                    request(1);
+                }
+
+                @Override
+                protected void hookOnNext(TodoJob value) {
+                    received.countDown();
+                }
+            };
+            m.findBetweenDatesFlux(null, START, end).subscribe(slow);
+            assertTrue(received.await(10, TimeUnit.SECONDS));
+
+            // the other stream waits for the slow one, while the other connection is left for the page queries
+            final CompletableFuture<Long> waiting = m.findBetweenDatesFlux(null, START, end).count().toFuture();
+            assertEquals(TodoJobMapperImpl.DEFAULT_PAGE_LIMIT,
+                    m.findByCursorAsync(null, null).get(10, TimeUnit.SECONDS).size());
+            assertFalse(waiting.isDone());
+
+            slow.dispose();
+            assertEquals(40, (long) waiting.get(10, TimeUnit.SECONDS));
+        } finally {
+            twoReaders.close();
+        }
+    }
+}
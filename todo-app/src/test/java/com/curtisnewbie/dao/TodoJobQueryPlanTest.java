@@ -0,0 +1,105 @@
+package com.curtisnewbie.dao;
+
+import com.curtisnewbie.dao.script.CreateFullTextIndexScript;
+import com.curtisnewbie.dao.script.CreateIndexScript;
+import com.curtisnewbie.dao.script.InitialiseScript;
+import com.curtisnewbie.dao.script.MigrateToEpochDayScript;
+import com.curtisnewbie.dao.script.ScriptRunner;
+import com.curtisnewbie.dao.script.SimpleScriptRunner;
+import junit.framework.TestCase;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.curtisnewbie.dao.TodoJobMapperImpl.*;
+
+/**
+ * Verify that the queries in {@link TodoJobMapperImpl} are backed by indexes
+ *
+ * @author yongjie.zhuang
+ */
+public class TodoJobQueryPlanTest extends TestCase {
+
+    private Connection conn;
+
+    @Override
+    protected void setUp() throws Exception {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        ScriptRunner runner = new SimpleScriptRunner();
+        new InitialiseScript().preInitialize(runner, conn);
+        new CreateIndexScript().preInitialize(runner, conn);
+        new CreateFullTextIndexScript().preInitialize(runner, conn);
+        new MigrateToEpochDayScript().preInitialize(runner, conn);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        conn.close();
+    }
+
+    public void testHotQueriesDoNotUseTempBTree() throws SQLException {
+        List<String> queries = new ArrayList<>(Arrays.asList(
+                FIND_BY_PAGE,
+                FIND_BETWEEN_DATES,
+                FIND_EARLIEST_DATE,
+                FIND_LATEST_DATE
+        ));
+        for (String cursorQuery : Arrays.asList(CURSOR_FIRST_PAGE, CURSOR_SAME_ACTUAL_END_DATE,
+                CURSOR_EARLIER_ACTUAL_END_DATE, CURSOR_NULL_ACTUAL_END_DATE, CURSOR_NULL_ACTUAL_END_DATE_AFTER,
+                CURSOR_GREATER_IS_DONE)) {
+            queries.add(String.format(cursorQuery, ""));
+            queries.add(String.format(cursorQuery, NAME_LIKE));
+        }
+
+        for (String sql : queries) {
+            String plan = explainQueryPlan(sql);
+            assertFalse("Query uses temp b-tree: " + sql + "\n" + plan, plan.contains("USE TEMP B-TREE"));
+            assertTrue("Query doesn't use index: " + sql + "\n" + plan, plan.contains("INDEX"));
+        }
+    }
+
+    public void testSearchQueriesUseFullTextIndex() throws SQLException {
+        for (String sql : Arrays.asList(FIND_BY_PAGE_BY_NAME, FIND_BETWEEN_DATES_BY_NAME, CURSOR_FIRST_PAGE,
+                CURSOR_SAME_ACTUAL_END_DATE, CURSOR_EARLIER_ACTUAL_END_DATE, CURSOR_NULL_ACTUAL_END_DATE,
+                CURSOR_NULL_ACTUAL_END_DATE_AFTER, CURSOR_GREATER_IS_DONE)) {
+            String plan = explainQueryPlan(String.format(sql, NAME_MATCH));
+            assertTrue("Query doesn't use full-text index: " + sql + "\n" + plan, plan.contains("VIRTUAL TABLE INDEX"));
+        }
+    }
+
+    public void testIndexScriptRunsOnlyOnce() throws SQLException {
+        assertEquals(3, userVersion());
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP INDEX todojob_page_idx");
+        }
+        new CreateIndexScript().preInitialize(new SimpleScriptRunner(), conn);
+
+        assertEquals(3, userVersion());
+        assertFalse(explainQueryPlan(FIND_BY_PAGE).contains("todojob_page_idx"));
+    }
+
+    private int userVersion() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private String explainQueryPlan(String sql) throws SQLException {
+        StringBuilder sb = new StringBuilder();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next())
+                sb.append(rs.getString(4)).append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.curtisnewbie.dao.script;
+
+import junit.framework.TestCase;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Verify that {@link MigrateToEpochDayScript} converts the dates written as milliseconds
+ *
+ * @author yongjie.zhuang
+ */
+public class MigrateToEpochDayScriptTest extends TestCase {
+
+    private Connection conn;
+
+    @Override
+    protected void setUp() throws Exception {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        ScriptRunner runner = new SimpleScriptRunner();
+        new InitialiseScript().preInitialize(runner, conn);
+        new CreateIndexScript().preInitialize(runner, conn);
+        new CreateFullTextIndexScript().preInitialize(runner, conn);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        conn.close();
+    }
+
+    public void testMillisAreConvertedToEpochDays() throws SQLException {
+        final LocalDate expected = LocalDate.of(2021, 7, 12);
+        final LocalDate actual = LocalDate.of(2021, 8, 7);
+        // how the dates were written before the migration
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO todojob (name, is_done, expected_end_date, actual_end_date) VALUES (?,?,?,?)")) {
+            stmt.setString(1, "done");
+            stmt.setBoolean(2, true);
+            stmt.setDate(3, new java.sql.Date(startTimeOf(expected)));
+            stmt.setDate(4, new java.sql.Date(startTimeOf(actual)));
+            stmt.executeUpdate();
+
+            stmt.setString(1, "in progress");
+            stmt.setBoolean(2, false);
+            stmt.setDate(3, new java.sql.Date(startTimeOf(expected)));
+            stmt.setNull(4, Types.INTEGER);
+            stmt.executeUpdate();
+        }
+
+        new MigrateToEpochDayScript().preInitialize(new SimpleScriptRunner(), conn);
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT expected_end_date, actual_end_date, typeof(expected_end_date) " +
+                     "FROM todojob ORDER BY id")) {
+            assertTrue(rs.next());
+            assertEquals(expected.toEpochDay(), rs.getLong(1));
+            assertEquals(actual.toEpochDay(), rs.getLong(2));
+            assertEquals("integer", rs.getString(3));
+            assertTrue(rs.next());
+            assertEquals(expected.toEpochDay(), rs.getLong(1));
+            rs.getLong(2);
+            assertTrue(rs.wasNull());
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            assertEquals(3, rs.getInt(1));
+        }
+    }
+
+    private static long startTimeOf(LocalDate ld) {
+        return ld.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,103 @@
+package com.curtisnewbie.dao.script;
+
+import junit.framework.TestCase;
+
+import java.sql.*;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Verify that {@link SchemaMigrationScript} only runs the pending scripts, and runs them in one transaction
+ *
+ * @author yongjie.zhuang
+ */
+public class SchemaMigrationScriptTest extends TestCase {
+
+    private Connection conn;
+
+    @Override
+    protected void setUp() throws Exception {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        conn.close();
+    }
+
+    public void testNothingRunsWhenSchemaIsUpToDate() throws SQLException {
+        final SchemaMigrationScript script = newScript();
+        script.preInitialize(new SimpleScriptRunner(), conn);
+        assertEquals(script.getLatestVersion(), userVersion());
+        assertTrue(tableExists("todojob"));
+
+        // neither the initialise script nor the versioned scripts run again
+        final SchemaMigrationScript again = new SchemaMigrationScript(
+                (runner, c) -> fail("Initialise script should not run"),
+                Collections.singletonList(new FailingScript(script.getLatestVersion())));
+        again.preInitialize((c, s) -> fail("No script should run"), conn);
+    }
+
+    public void testScriptsAreRolledBackTogether() throws SQLException {
+        final SchemaMigrationScript script = new SchemaMigrationScript(new InitialiseScript(),
+                Arrays.asList(new CreateIndexScript(), new FailingScript(2)));
+        try {
+            script.preInitialize(new SimpleScriptRunner(), conn);
+            fail("Migration should fail");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(0, userVersion());
+        assertFalse(tableExists("todojob"));
+        assertTrue(conn.getAutoCommit());
+    }
+
+    public void testDuplicateVersionIsRejected() {
+        try {
+            new SchemaMigrationScript(new InitialiseScript(), Arrays.asList(new FailingScript(1), new CreateIndexScript()));
+            fail("Duplicate version should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static SchemaMigrationScript newScript() {
+        return new SchemaMigrationScript(new InitialiseScript(), Arrays.asList(
+                new CreateIndexScript(),
+                new CreateFullTextIndexScript(),
+                new MigrateToEpochDayScript()));
+    }
+
+    private int userVersion() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private boolean tableExists(String name) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static class FailingScript extends VersionedScript {
+
+        private final int version;
+
+        private FailingScript(int version) {
+            this.version = version;
+        }
+
+        @Override
+        public int getVersion() {
+            return version;
+        }
+
+        @Override
+        protected void migrate(ScriptRunner runner, Connection conn) {
+            throw new IllegalStateException("Failed to migrate");
+        }
+    }
+}
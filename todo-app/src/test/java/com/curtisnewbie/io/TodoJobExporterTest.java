@@ -0,0 +1,124 @@
+package com.curtisnewbie.io;
+
+import com.curtisnewbie.dao.BatchingWriteExecutor;
+import com.curtisnewbie.dao.TestDatabase;
+import com.curtisnewbie.dao.TodoJob;
+import com.curtisnewbie.dao.TodoJobMapper;
+import com.curtisnewbie.dao.TodoJobMapperImpl;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verify that {@link TodoJobExporter} completes the export to file only after the file is fully written
+ *
+ * @author yongjie.zhuang
+ */
+public class TodoJobExporterTest extends TestCase {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 10, 18);
+    /** more than the buffer of the writer */
+    private static final int ROWS = 3000;
+
+    private TestDatabase db;
+    private TodoJobMapper mapper;
+    private TodoJobExporter exporter;
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception {
+        db = new TestDatabase(1);
+        mapper = new TodoJobMapperImpl(db.writer, new BatchingWriteExecutor(db.conn, 100, 0),
+                db.readers);
+        final List<TodoJob> jobs = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            final TodoJob t = new TodoJob("job " + i);
+            t.setExpectedEndDate(DATE);
+            jobs.add(t);
+        }
+        mapper.insertAllAsync(jobs).join();
+        exporter = new TodoJobExporter(mapper, (todoJob, pattern, context) -> todoJob.getName());
+        file = File.createTempFile("todo-app-export", ".txt");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        db.close();
+        file.delete();
+    }
+
+    public void testFileIsWrittenWhenCompleted() throws Exception {
+        assertEquals(ROWS, exporter.exportAsync(file, null, DATE, DATE, null, null, null).join().intValue());
+
+        final List<String> lines = Files.readAllLines(file.toPath(), Charset.defaultCharset());
+        assertEquals(ROWS, lines.size());
+        assertTrue(lines.contains("job 0"));
+        assertTrue(lines.contains("job " + (ROWS - 1)));
+    }
+
+    public void testCancelledExportClosesFile() throws Exception {
+        final CountDownLatch printed = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final TodoJobExporter blocking = new TodoJobExporter(mapper, (todoJob, pattern, context) -> {
+            printed.countDown();
+            try {
+                cancelled.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return todoJob.getName();
+        });
+        final CompletableFuture<Integer> export = blocking.exportAsync(file, null, DATE, DATE, null, null, null);
+        assertTrue(printed.await(10, TimeUnit.SECONDS));
+        if (new File("/proc/self/fd").isDirectory())
+            assertTrue(isOpened(file));
+        assertTrue(export.cancel(false));
+        cancelled.countDown();
+
+        // the record printed before the cancellation is flushed, and the file is closed
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while ((file.length() == 0 || isOpened(file)) && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertFalse(isOpened(file));
+        assertEquals(1, Files.readAllLines(file.toPath(), Charset.defaultCharset()).size());
+    }
+
+    public void testFailsWhenFileCannotBeOpened() {
+        final File dir = file.getParentFile();
+        try {
+            exporter.exportAsync(dir, null, DATE, DATE, null, null, null).join();
+            fail("Exported to a directory");
+        } catch (CompletionException expected) {
+        }
+    }
+
+    /**
+     * Whether the file is opened by this process, it's always false where /proc is not available
+     */
+    private static boolean isOpened(File file) throws IOException {
+        final File[] fds = new File("/proc/self/fd").listFiles();
+        if (fds == null)
+            return false;
+        final Path path = file.toPath().toRealPath();
+        for (File fd : fds) {
+            try {
+                if (Files.readSymbolicLink(fd.toPath()).equals(path))
+                    return true;
+            } catch (IOException ignored) {
+                // the descriptor is closed meanwhile
+            }
+        }
+        return false;
+    }
+}
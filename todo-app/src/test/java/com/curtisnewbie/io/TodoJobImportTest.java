@@ -0,0 +1,86 @@
+package com.curtisnewbie.io;
+
+import com.curtisnewbie.dao.BatchingWriteExecutor;
+import com.curtisnewbie.dao.TestDatabase;
+import com.curtisnewbie.dao.TodoJob;
+import com.curtisnewbie.dao.TodoJobMapper;
+import com.curtisnewbie.dao.TodoJobMapperImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Verify that {@link IOHandlerImpl} imports a file of several batches, and reports the progress after each of them
+ *
+ * @author yongjie.zhuang
+ */
+public class TodoJobImportTest extends TestCase {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 10, 18);
+    /** two full batches and a partial one */
+    private static final int ROWS = 4123;
+
+    private TestDatabase db;
+    private TodoJobMapper mapper;
+    private File json;
+
+    @Override
+    protected void setUp() throws Exception {
+        db = new TestDatabase(1);
+        mapper = new TodoJobMapperImpl(db.writer, new BatchingWriteExecutor(db.conn, 100, 0), db.readers);
+
+        final List<TodoJob> jobs = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            final TodoJob t = new TodoJob("job " + i);
+            // ids in the file are ignored
+            t.setId(1);
+            t.setExpectedEndDate(DATE);
+            jobs.add(t);
+        }
+        json = File.createTempFile("todo-app-import", ".json");
+        new ObjectMapper().writeValue(json, jobs);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        db.close();
+        json.delete();
+    }
+
+    public void testImportInBatches() {
+        final List<long[]> progress = new ArrayList<>();
+        final int imported = new IOHandlerImpl().importTodoJobAsync(json, mapper, (count, bytesRead, totalBytes) -> {
+            synchronized (progress) {
+                progress.add(new long[]{count, bytesRead, totalBytes});
+            }
+        }).join();
+        assertEquals(ROWS, imported);
+
+        final List<TodoJob> rows = mapper.findBetweenDatesAsync(null, DATE, DATE).join();
+        assertEquals(ROWS, rows.size());
+        final Set<String> names = new HashSet<>();
+        for (TodoJob t : rows)
+            names.add(t.getName());
+        assertEquals(ROWS, names.size());
+
+        synchronized (progress) {
+            assertEquals(3, progress.size());
+            final long[] expectedCounts = {2000, 4000, ROWS};
+            long prevBytesRead = 0;
+            for (int i = 0; i < progress.size(); i++) {
+                final long[] p = progress.get(i);
+                assertEquals(expectedCounts[i], p[0]);
+                assertTrue(p[1] > prevBytesRead);
+                assertTrue(p[1] <= p[2]);
+                assertEquals(json.length(), p[2]);
+                prevBytesRead = p[1];
+            }
+        }
+    }
+}
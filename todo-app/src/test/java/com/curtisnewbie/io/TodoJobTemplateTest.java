@@ -0,0 +1,64 @@
+package com.curtisnewbie.io;
+
+import com.curtisnewbie.config.Config;
+import com.curtisnewbie.config.Environment;
+import com.curtisnewbie.config.Language;
+import com.curtisnewbie.config.PropertiesLoader;
+import com.curtisnewbie.dao.TodoJob;
+import junit.framework.TestCase;
+
+import java.time.LocalDate;
+
+/**
+ * Compiled template must print the fields in place of the placeholders, and keep everything else as is
+ *
+ * @author yongjie.zhuang
+ */
+public class TodoJobTemplateTest extends TestCase {
+
+    private Environment environment;
+    private TodoJob todoJob;
+
+    @Override
+    protected void setUp() {
+        PropertiesLoader.getInstance().changeToLocale(Language.ENG.locale);
+        environment = new Environment(Config.getDefaultConfig());
+        todoJob = new TodoJob("buy milk\nand eggs");
+        todoJob.setDone(true);
+        todoJob.setExpectedEndDate(LocalDate.of(2026, 10, 1));
+        todoJob.setActualEndDate(LocalDate.of(2026, 10, 18));
+    }
+
+    public void testFieldsAreRendered() throws Exception {
+        final String status = TodoJobObjectPrinter.formatStatus(todoJob);
+        final String content = TodoJobObjectPrinter.formatContent(todoJob.getName(), environment.isSpecialTagEnabled());
+        final String expected = TodoJobObjectPrinter.formatExpectedEndDate(todoJob);
+        final String actual = TodoJobObjectPrinter.formatActualEndDate(todoJob);
+
+        assertEquals(status + " " + content, render("${status} ${content}"));
+        assertEquals("[" + expected + "] - [" + actual + "] " + status + ":\n" + content + "\n",
+                render("[${expectedEndDate}] - [${actualEndDate}] ${status}:\n${content}\n"));
+        assertEquals("no placeholder at all", render("no placeholder at all"));
+        assertEquals(content + content, render("${content}${content}"));
+        assertEquals("cost: $5, " + status, render("cost: $5, ${status}"));
+    }
+
+    public void testUnknownPlaceholderIsKept() throws Exception {
+        final String status = TodoJobObjectPrinter.formatStatus(todoJob);
+        assertEquals("${unknown} " + status + " ${ status } ${", render("${unknown} ${status} ${ status } ${"));
+    }
+
+    public void testTemplateIsRecompiledWhenPatternChanges() {
+        final TodoJobObjectPrinter printer = new TodoJobObjectPrinter();
+        final PrintContext ctx = PrintContext.builder().environment(environment).isNumbered(true).build();
+        assertEquals("1. " + TodoJobObjectPrinter.formatStatus(todoJob), printer.printObject(todoJob, "${status}", ctx));
+        assertEquals("2. " + TodoJobObjectPrinter.formatExpectedEndDate(todoJob),
+                printer.printObject(todoJob, "${expectedEndDate}", ctx));
+    }
+
+    private String render(String pattern) throws Exception {
+        final StringBuilder sb = new StringBuilder();
+        TodoJobTemplate.compile(pattern).render(todoJob, environment, sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.curtisnewbie.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Benchmark of the latency of a burst of concurrent file writes, run in the platform thread pool and in the executor
+ * from {@link BlockingExecutors} (virtual threads on JDK 21 or later), the same way as {@link ExecutorRegistry#fileIo()}
+ * </p>
+ * <p>
+ * Each operation writes a small file, syncs it to the disk, and reads it back, like saving the settings or exporting a
+ * few records does. JDBC calls are not measured, they always run in platform threads.
+ * </p>
+ * <p>
+ * It's not run with the tests, run its main method after {@code mvn test-compile}, on both JDK 8 and JDK 21 to
+ * compare.
+ * </p>
+ *
+ * @author yongjie.zhuang
+ */
+public class BlockingExecutorsBenchmark {
+
+    /** number of operations submitted at the same time */
+    private static final int BURST = 1000;
+    /** size of each file written */
+    private static final int FILE_BYTES = 4096;
+    private static final int THREADS = ExecutorRegistry.FILE_IO_THREADS;
+    private static final int QUEUE_CAPACITY = BURST;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("JDK %s, burst of %d writes of %d bytes each%n", System.getProperty("java.version"), BURST,
+                FILE_BYTES);
+        final File dir = Files.createTempDirectory("todo-app-bench").toFile();
+        try {
+            for (int i = 0; i < ROUNDS; i++) {
+                run("platform", new InstrumentedExecutor("bench-platform", THREADS, QUEUE_CAPACITY), dir);
+                run(BlockingExecutors.isVirtual() ? "virtual" : "platform (default)",
+                        BlockingExecutors.newExecutor("bench", THREADS, QUEUE_CAPACITY), dir);
+            }
+        } finally {
+            final File[] files = dir.listFiles();
+            if (files != null)
+                for (File f : files)
+                    f.delete();
+            dir.delete();
+        }
+    }
+
+    private static void run(String label, InstrumentedExecutor executor, File dir) {
+        final long[] latencies = new long[BURST];
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[BURST];
+        final byte[] content = new byte[FILE_BYTES];
+        final long start = System.nanoTime();
+        for (int i = 0; i < BURST; i++) {
+            final int n = i;
+            final long submittedAt = System.nanoTime();
+            futures[i] = executor.runAsync(() -> {
+                writeAndRead(new File(dir, n + ".txt"), content);
+                latencies[n] = System.nanoTime() - submittedAt;
+            });
+        }
+        CompletableFuture.allOf(futures).join();
+        final long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("%-20s total %6d ms, p50 %6d ms, p99 %6d ms, max %6d ms, caller runs %d%n", label,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), millis(latencies, 0.50), millis(latencies, 0.99),
+                TimeUnit.NANOSECONDS.toMillis(latencies[BURST - 1]), executor.getMetrics().getCallerRunsCount());
+    }
+
+    private static long millis(long[] sorted, double percentile) {
+        return TimeUnit.NANOSECONDS.toMillis(sorted[(int) Math.ceil(percentile * sorted.length) - 1]);
+    }
+
+    private static void writeAndRead(File file, byte[] content) {
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(content);
+                out.getFD().sync();
+            }
+            Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
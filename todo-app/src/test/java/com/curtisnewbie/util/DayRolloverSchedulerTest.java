@@ -0,0 +1,39 @@
+package com.curtisnewbie.util;
+
+import junit.framework.TestCase;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Verify the delays of the timer in {@link DayRolloverScheduler}
+ *
+ * @author yongjie.zhuang
+ */
+public class DayRolloverSchedulerTest extends TestCase {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/London");
+
+    public void testDelayIsCapped() {
+        final ZonedDateTime noon = ZonedDateTime.of(LocalDateTime.of(2026, 10, 18, 12, 0), ZONE);
+        assertEquals(DayRolloverScheduler.MAX_SLEEP, DayRolloverScheduler.nextDelay(noon));
+    }
+
+    public void testDelayBeforeMidnight() {
+        final ZonedDateTime now = ZonedDateTime.of(LocalDateTime.of(2026, 10, 18, 23, 59, 30), ZONE);
+        assertEquals(Duration.ofSeconds(30), DayRolloverScheduler.nextDelay(now));
+    }
+
+    public void testDelayAcrossDaylightSavingChange() {
+        // clocks go back at 2am on 2026-10-25 in London, the midnight is still 30 minutes later
+        final ZonedDateTime now = ZonedDateTime.of(LocalDateTime.of(2026, 10, 24, 23, 30), ZONE);
+        assertEquals(Duration.ofMinutes(30), DayRolloverScheduler.nextDelay(now));
+
+        // clocks go forward at midnight in Santiago, the day starts at 1am
+        final ZoneId santiago = ZoneId.of("America/Santiago");
+        final ZonedDateTime beforeGap = ZonedDateTime.of(LocalDateTime.of(2026, 9, 5, 23, 30), santiago);
+        assertEquals(Duration.ofMinutes(30), DayRolloverScheduler.nextDelay(beforeGap));
+    }
+}
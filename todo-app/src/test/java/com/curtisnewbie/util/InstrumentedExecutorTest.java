@@ -0,0 +1,87 @@
+package com.curtisnewbie.util;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Verify the thread naming, bounded queue and metrics of {@link InstrumentedExecutor}
+ *
+ * @author yongjie.zhuang
+ */
+public class InstrumentedExecutorTest extends TestCase {
+
+    private final InstrumentedExecutor executor = new InstrumentedExecutor("test", 1, 1);
+
+    @Override
+    protected void tearDown() {
+        executor.shutdown();
+    }
+
+    public void testThreadNaming() {
+        final String name = executor.supplyAsync(() -> Thread.currentThread().getName()).join();
+        assertEquals("todo-app-test-1", name);
+    }
+
+    public void testCallerRunsWhenQueueIsFull() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CompletableFuture<Void> running = executor.runAsync(() -> {
+            started.countDown();
+            await(blocked);
+        });
+        started.await();
+        final CompletableFuture<Void> queued = executor.runAsync(() -> {
+        });
+        assertEquals(1, executor.getMetrics().getQueueDepth());
+        assertEquals(1, executor.getMetrics().getActiveCount());
+
+        // the queue is full, so it's run by this thread
+        final String name = executor.supplyAsync(() -> Thread.currentThread().getName()).join();
+        assertEquals(Thread.currentThread().getName(), name);
+        assertEquals(1, executor.getMetrics().getCallerRunsCount());
+
+        blocked.countDown();
+        CompletableFuture.allOf(running, queued).join();
+        // the tasks record their metrics after the futures are completed
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (executor.getMetrics().getCompletedCount() < 3 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        final InstrumentedExecutor.Metrics metrics = executor.getMetrics();
+        assertEquals(3, metrics.getCompletedCount());
+        assertEquals(0, metrics.getQueueDepth());
+        assertTrue(metrics.getMaxQueueWaitNanos() > 0);
+    }
+
+    public void testWithoutCallerRunsQueuesWhenFull() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CompletableFuture<Void> running = executor.runAsync(() -> {
+            started.countDown();
+            await(blocked);
+        });
+        started.await();
+        final CompletableFuture<Void> queued = executor.runAsync(() -> {
+        });
+
+        // the queue is full, but it's still queued instead of being run by this thread
+        final CompletableFuture<String> overflow = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(),
+                executor.withoutCallerRuns());
+        assertFalse(overflow.isDone());
+        assertEquals(2, executor.getMetrics().getQueueDepth());
+
+        blocked.countDown();
+        assertEquals("todo-app-test-1", overflow.join());
+        CompletableFuture.allOf(running, queued).join();
+        assertEquals(0, executor.getMetrics().getCallerRunsCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
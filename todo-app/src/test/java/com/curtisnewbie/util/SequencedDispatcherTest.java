@@ -0,0 +1,61 @@
+package com.curtisnewbie.util;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Verify that {@link SequencedDispatcher} only delivers the result of the latest request
+ *
+ * @author yongjie.zhuang
+ */
+public class SequencedDispatcherTest extends TestCase {
+
+    public void testStaleResultIsDropped() {
+        final SequencedDispatcher dispatcher = new SequencedDispatcher(Runnable::run);
+        final List<String> delivered = new ArrayList<>();
+        final CompletableFuture<String> slow = new CompletableFuture<>();
+        final CompletableFuture<String> fast = new CompletableFuture<>();
+
+        dispatcher.dispatch(() -> slow, delivered::add);
+        final long latest = dispatcher.dispatch(() -> fast, delivered::add);
+        assertTrue(slow.isCancelled());
+        assertTrue(dispatcher.isLatest(latest));
+
+        assertTrue(dispatcher.isPending());
+        fast.complete("fast");
+        slow.complete("slow");
+        assertFalse(dispatcher.isPending());
+        assertEquals(1, delivered.size());
+        assertEquals("fast", delivered.get(0));
+    }
+
+    public void testResultIsDroppedWhenDispatcherIsCancelled() {
+        final SequencedDispatcher dispatcher = new SequencedDispatcher(Runnable::run);
+        final List<String> delivered = new ArrayList<>();
+        final List<Runnable> pending = new ArrayList<>();
+        final SequencedDispatcher deferred = new SequencedDispatcher(pending::add);
+
+        // result is completed but not delivered yet when a newer request comes
+        deferred.dispatch(() -> CompletableFuture.completedFuture("old"), delivered::add);
+        deferred.dispatch(() -> CompletableFuture.completedFuture("new"), delivered::add);
+        pending.forEach(Runnable::run);
+        assertEquals(1, delivered.size());
+        assertEquals("new", delivered.get(0));
+
+        final CompletableFuture<String> f = new CompletableFuture<>();
+        dispatcher.dispatch(() -> f, delivered::add);
+        dispatcher.cancel();
+        assertTrue(f.isCancelled());
+        assertFalse(dispatcher.isPending());
+        assertEquals(1, delivered.size());
+
+        // a failed request is not pending
+        final CompletableFuture<String> failed = new CompletableFuture<>();
+        dispatcher.dispatch(() -> failed, delivered::add);
+        failed.completeExceptionally(new IllegalStateException());
+        assertFalse(dispatcher.isPending());
+    }
+}